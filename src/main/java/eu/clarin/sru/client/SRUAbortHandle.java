@@ -0,0 +1,107 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/*
+ * A handle to abort the HTTP exchange of a single request from another
+ * thread, e.g. when its deadline expires or when it lost a hedging race. The
+ * exchange may be aborted before the transport attached its abort callback;
+ * in this case the callback is invoked as soon as it gets attached.
+ */
+final class SRUAbortHandle {
+    private Runnable callback;
+    private boolean aborted = false;
+    private boolean cancelled = false;
+
+
+    void attach(Runnable callback) {
+        final boolean abort;
+        synchronized (this) {
+            this.callback = callback;
+            abort = aborted;
+        }
+        if (abort) {
+            callback.run();
+        }
+    }
+
+
+    void detach() {
+        synchronized (this) {
+            callback = null;
+        }
+    }
+
+
+    /*
+     * abort, because the request failed, e.g. its deadline expired
+     */
+    void abort() {
+        doAbort(false);
+    }
+
+
+    /*
+     * abort, because the result of the request is no longer needed
+     */
+    void cancel() {
+        doAbort(true);
+    }
+
+
+    /*
+     * abort the exchange, but not the request, because the rest of the
+     * response is not needed, e.g. parsing stopped early
+     */
+    void discard() {
+        final Runnable c;
+        synchronized (this) {
+            c = callback;
+        }
+        if (c != null) {
+            c.run();
+        }
+    }
+
+
+    synchronized boolean isAborted() {
+        return aborted;
+    }
+
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+
+    private void doAbort(boolean cancel) {
+        final Runnable c;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted   = true;
+            cancelled = cancel;
+            c = callback;
+        }
+        if (c != null) {
+            c.run();
+        }
+    }
+
+} // class SRUAbortHandle
@@ -18,11 +18,19 @@ package eu.clarin.sru.client;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicNameValuePair;
 
 
 
@@ -33,7 +41,7 @@ import org.apache.http.client.utils.URIBuilder;
  * @see SRUScanResponse
  * @see SRUSearchRetrieveResponse
  */
-abstract class SRUAbstractRequest {
+public abstract class SRUAbstractRequest {
     /* general / explain related parameter names */
     protected static final String PARAM_OPERATION            = "operation";
     protected static final String PARAM_VERSION              = "version";
@@ -79,14 +87,29 @@ abstract class SRUAbstractRequest {
     /** for end-point conformance testing only. never use in production. */
     public static final String MALFORMED_OMIT          = "omit";
     private static final String MALFORMED_KEY_PREFIX   = "x-malformed";
+    private static final Comparator<NameValuePair> PARAMETER_ORDER =
+            new Comparator<NameValuePair>() {
+                @Override
+                public int compare(NameValuePair p1, NameValuePair p2) {
+                    final int r = p1.getName().compareTo(p2.getName());
+                    if (r != 0) {
+                        return r;
+                    }
+                    final String v1 = p1.getValue();
+                    final String v2 = p2.getValue();
+                    if (v1 == null) {
+                        return (v2 == null) ? 0 : -1;
+                    }
+                    return (v2 == null) ? 1 : v1.compareTo(v2);
+                }
+            };
 
 
     protected static class URIHelper {
-        private final URIBuilder uriBuilder;
+        private final List<NameValuePair> parameters = new ArrayList<>();
 
 
-        private URIHelper(URIBuilder builder) {
-            this.uriBuilder = builder;
+        private URIHelper() {
         }
 
 
@@ -104,7 +127,7 @@ abstract class SRUAbstractRequest {
                 throw new IllegalArgumentException("value is empty");
             }
 
-            uriBuilder.addParameter(name, value);
+            parameters.add(new BasicNameValuePair(name, value));
             return this;
         }
 
@@ -114,8 +137,15 @@ abstract class SRUAbstractRequest {
         }
 
 
-        private URI makeURI() throws URISyntaxException {
-            return uriBuilder.build();
+        private URI makeURI(URI baseURI) throws URISyntaxException {
+            return new URIBuilder(baseURI).addParameters(parameters).build();
+        }
+
+
+        private byte[] makeBody() {
+            /* form-encoded data is pure ASCII */
+            return URLEncodedUtils.format(parameters, StandardCharsets.UTF_8)
+                    .getBytes(StandardCharsets.US_ASCII);
         }
     } // class URIHelper
 
@@ -135,6 +165,10 @@ abstract class SRUAbstractRequest {
     private boolean sendAuthentication = false;
     /** A map of extra authentication context data. */
     protected Map<String, String> authenticationContext;
+    /** The request timeout or <code>-1</code> for client default. */
+    private int requestTimeout = -1;
+    /** The request method to be used for this request. */
+    private SRURequestMethod requestMethod;
     /*
      * The version that was used to perform the request.
      * It is set as a side-effect of makeURI().
@@ -145,6 +179,16 @@ abstract class SRUAbstractRequest {
      * It is set a a side-effect of makeURI().
      */
     private URI uriRequested;
+    /*
+     * The request method that was used to perform the request.
+     * It is set a a side-effect of makeURI().
+     */
+    private SRURequestMethod requestMethodRequested;
+    /*
+     * The form-encoded request body for POST requests.
+     * It is set a a side-effect of makeURI().
+     */
+    private byte[] bodyRequested;
 
 
     /**
@@ -243,6 +287,69 @@ abstract class SRUAbstractRequest {
     }
 
 
+    /**
+     * Get the request timeout for this request.
+     *
+     * @return the request timeout in milliseconds, <code>0</code> for no
+     *         timeout or <code>-1</code> if client default is used
+     */
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+
+    /**
+     * Set the request timeout for this request. The request timeout is a hard
+     * deadline for the whole request, i.e. establishing the connection,
+     * receiving and parsing the response. If the deadline expires, the
+     * request is aborted and a {@link SRURequestTimeoutException} is raised.
+     * <p>
+     * A timeout value of <code>0</code> is interpreted as no timeout;
+     * <code>-1</code> is interpreted as client default.
+     * </p>
+     *
+     * @param requestTimeout
+     *            the request timeout in milliseconds
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     * @see SRUClientConfig.Builder#setRequestTimeout(int)
+     */
+    public void setRequestTimeout(int requestTimeout) {
+        if (requestTimeout < -1) {
+            throw new IllegalArgumentException("requestTimeout < -1");
+        }
+        this.requestTimeout = requestTimeout;
+    }
+
+
+    /**
+     * Get the HTTP request method for this request.
+     *
+     * @return the request method or <code>null</code> if client default is
+     *         used
+     */
+    public SRURequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+
+    /**
+     * Set the HTTP request method for this request. With
+     * {@link SRURequestMethod#POST}, the request parameters are sent as a
+     * form-encoded request body instead of the query string of the request
+     * URI. Endpoints announce support for POST in the <code>method</code>
+     * attribute of the <code>serverInfo</code> element of their explain
+     * record, see {@link SRUExplainRecordData.ServerInfo#getMethods()}.
+     *
+     * @param requestMethod
+     *            the request method or <code>null</code> for client default
+     * @see SRUClientConfig.Builder#setDefaultRequestMethod(SRURequestMethod)
+     */
+    public void setRequestMethod(SRURequestMethod requestMethod) {
+        this.requestMethod = requestMethod;
+    }
+
+
     /**
      * Set an extra request parameter for this request.
      *
@@ -349,6 +456,32 @@ abstract class SRUAbstractRequest {
     }
 
 
+    /**
+     * Get the HTTP request method that was used to carry out this request.
+     * This method may only be called <em>after</em> the request was carried
+     * out, otherwise it will throw an {@link IllegalStateException}.
+     *
+     * @return the request method that was used to carry out this request
+     * @throws IllegalStateException
+     *             if the request was not yet carried out
+     */
+    public final SRURequestMethod getRequestedMethod() {
+        if (requestMethodRequested == null) {
+            throw new IllegalStateException(
+                    "The request was not yet carried out");
+        }
+        return requestMethodRequested;
+    }
+
+
+    /*
+     * This is not public API.
+     */
+    final byte[] getRequestedBody() {
+        return bodyRequested;
+    }
+
+
     /**
      * Get the authentication mode for this request
      *
@@ -425,123 +558,209 @@ abstract class SRUAbstractRequest {
      */
     protected final URI makeURI(SRUVersion defaultVersion)
             throws SRUClientException {
+        return makeURI(defaultVersion, SRURequestMethod.GET);
+    }
+
+
+    /*
+     * This is not public API.
+     */
+    protected final URI makeURI(SRUVersion defaultVersion,
+            SRURequestMethod defaultRequestMethod) throws SRUClientException {
         if (defaultVersion == null) {
             throw new NullPointerException("defaultVersion == null");
         }
+        if (defaultRequestMethod == null) {
+            throw new NullPointerException("defaultRequestMethod == null");
+        }
 
         try {
-            final URIHelper uriBuilder =
-                    new URIHelper(new URIBuilder(baseURI));
-
             /* store the version, we use for this request */
             versionRequested = (version != null) ? version : defaultVersion;
 
-            switch (versionRequested) {
-            case VERSION_1_1:
-                /* $FALL-THROUGH$ */
-            case VERSION_1_2:
-                /*
-                 * append operation parameter
-                 *
-                 * NB: Setting "x-malformed-operation" as an extra request parameter
-                 * makes the client send invalid requests. This is intended to
-                 * use for testing SRU servers for protocol conformance (i.e.
-                 * provoke an error) and SHOULD NEVER be used in production!
-                 */
-                final String malformedOperation =
-                        getExtraRequestData(X_MALFORMED_OPERATION);
-                if (malformedOperation == null) {
-                    switch (getOperation()) {
-                    case EXPLAIN:
-                        uriBuilder.append(PARAM_OPERATION, OP_EXPLAIN);
-                        break;
-                    case SCAN:
-                        uriBuilder.append(PARAM_OPERATION, OP_SCAN);
-                        break;
-                    case SEARCH_RETRIEVE:
-                        uriBuilder.append(PARAM_OPERATION, OP_SEARCH_RETRIEVE);
-                        break;
-                    default:
-                    } // switch
-                } else {
-                    if (!malformedOperation.equals(MALFORMED_OMIT)) {
-                        uriBuilder.append(PARAM_OPERATION, malformedOperation);
-                    }
-                }
+            final URIHelper uriBuilder = makeParameters(versionRequested);
+
+            /*
+             * for POST, the parameters are encoded only once into the
+             * request body, which is reused if the request is retried
+             */
+            final SRURequestMethod method = (requestMethod != null)
+                    ? requestMethod : defaultRequestMethod;
+            final URI uri;
+            if (method == SRURequestMethod.POST) {
+                uri           = baseURI;
+                bodyRequested = uriBuilder.makeBody();
+            } else {
+                uri           = uriBuilder.makeURI(baseURI);
+                bodyRequested = null;
+            }
+            requestMethodRequested = method;
+            uriRequested = uri;
+            return uri;
+        } catch (URISyntaxException e) {
+            throw new SRUClientException("error while building request URI", e);
+        }
+    }
 
-                /*
-                 * append version parameter
-                 *
-                 * NB: Setting "x-malformed-version" as an extra request parameter
-                 * makes the client send invalid requests. This is intended to
-                 * use for testing SRU servers for protocol conformance (i.e.
-                 * provoke an error) and SHOULD NEVER be used in production!
-                 */
-                final String malformedVersion =
-                        getExtraRequestData(X_MALFORMED_VERSION);
-                if (malformedVersion == null) {
-                    versionRequested = (version != null) ? version : defaultVersion;
-                    switch (versionRequested) {
-                    case VERSION_1_1:
-                        uriBuilder.append(PARAM_VERSION, VERSION_1_1);
-                        break;
-                    case VERSION_1_2:
-                        uriBuilder.append(PARAM_VERSION, VERSION_1_2);
-                        break;
-                    default:
-                        throw new SRUClientException("internal error: " +
-                                "unsupported value for version (" +
-                                versionRequested + ")");
-                    } // switch
-                } else {
-                    if (!malformedVersion.equalsIgnoreCase(MALFORMED_OMIT)) {
-                        uriBuilder.append(PARAM_VERSION, malformedVersion);
-                    }
-                }
-                break;
-            case VERSION_2_0:
-                if (getExtraRequestData(X_MALFORMED_OPERATION) != null) {
-                    throw new SRUClientException("parameter '" +
-                            X_MALFORMED_OPERATION +
-                            "' is not supported when using version 2.0");
+
+    /*
+     * Collect the request parameters for the given version.
+     */
+    private URIHelper makeParameters(SRUVersion effectiveVersion)
+            throws SRUClientException {
+        final URIHelper uriBuilder = new URIHelper();
+        switch (effectiveVersion) {
+        case VERSION_1_1:
+            /* $FALL-THROUGH$ */
+        case VERSION_1_2:
+            /*
+             * append operation parameter
+             *
+             * NB: Setting "x-malformed-operation" as an extra request parameter
+             * makes the client send invalid requests. This is intended to
+             * use for testing SRU servers for protocol conformance (i.e.
+             * provoke an error) and SHOULD NEVER be used in production!
+             */
+            final String malformedOperation =
+                    getExtraRequestData(X_MALFORMED_OPERATION);
+            if (malformedOperation == null) {
+                switch (getOperation()) {
+                case EXPLAIN:
+                    uriBuilder.append(PARAM_OPERATION, OP_EXPLAIN);
+                    break;
+                case SCAN:
+                    uriBuilder.append(PARAM_OPERATION, OP_SCAN);
+                    break;
+                case SEARCH_RETRIEVE:
+                    uriBuilder.append(PARAM_OPERATION, OP_SEARCH_RETRIEVE);
+                    break;
+                default:
+                } // switch
+            } else {
+                if (!malformedOperation.equals(MALFORMED_OMIT)) {
+                    uriBuilder.append(PARAM_OPERATION, malformedOperation);
                 }
-                if (getExtraRequestData(X_MALFORMED_VERSION) != null) {
-                    throw new SRUClientException("parameter '" +
-                            X_MALFORMED_VERSION +
-                            "' is not supported when using version 2.0");
+            }
+
+            /*
+             * append version parameter
+             *
+             * NB: Setting "x-malformed-version" as an extra request parameter
+             * makes the client send invalid requests. This is intended to
+             * use for testing SRU servers for protocol conformance (i.e.
+             * provoke an error) and SHOULD NEVER be used in production!
+             */
+            final String malformedVersion =
+                    getExtraRequestData(X_MALFORMED_VERSION);
+            if (malformedVersion == null) {
+                switch (effectiveVersion) {
+                case VERSION_1_1:
+                    uriBuilder.append(PARAM_VERSION, VERSION_1_1);
+                    break;
+                case VERSION_1_2:
+                    uriBuilder.append(PARAM_VERSION, VERSION_1_2);
+                    break;
+                default:
+                    throw new SRUClientException("internal error: " +
+                            "unsupported value for version (" +
+                            effectiveVersion + ")");
+                } // switch
+            } else {
+                if (!malformedVersion.equalsIgnoreCase(MALFORMED_OMIT)) {
+                    uriBuilder.append(PARAM_VERSION, malformedVersion);
                 }
-                break;
-            default:
-                throw new SRUClientException("internal error: " +
-                        "unsupported value for version (" +
-                        versionRequested + ")");
             }
+            break;
+        case VERSION_2_0:
+            if (getExtraRequestData(X_MALFORMED_OPERATION) != null) {
+                throw new SRUClientException("parameter '" +
+                        X_MALFORMED_OPERATION +
+                        "' is not supported when using version 2.0");
+            }
+            if (getExtraRequestData(X_MALFORMED_VERSION) != null) {
+                throw new SRUClientException("parameter '" +
+                        X_MALFORMED_VERSION +
+                        "' is not supported when using version 2.0");
+            }
+            break;
+        default:
+            throw new SRUClientException("internal error: " +
+                    "unsupported value for version (" +
+                    effectiveVersion + ")");
+        }
 
-            // request specific parameters
-            addParametersToURI(uriBuilder, versionRequested);
-
-            // extraRequestData
-            if ((extraRequestData != null) && !extraRequestData.isEmpty()) {
-                for (Map.Entry<String, String> entry :
-                    extraRequestData.entrySet()) {
-                    final String key = entry.getKey();
-
-                    /*
-                     * make sure, we skip the client-internal parameters
-                     * used to generate invalid requests ...
-                     */
-                    if (!key.startsWith(MALFORMED_KEY_PREFIX)) {
-                        uriBuilder.append(key, entry.getValue());
-                    }
+        // request specific parameters
+        addParametersToURI(uriBuilder, effectiveVersion);
+
+        // extraRequestData
+        if ((extraRequestData != null) && !extraRequestData.isEmpty()) {
+            for (Map.Entry<String, String> entry :
+                extraRequestData.entrySet()) {
+                final String key = entry.getKey();
+
+                /*
+                 * make sure, we skip the client-internal parameters
+                 * used to generate invalid requests ...
+                 */
+                if (!key.startsWith(MALFORMED_KEY_PREFIX)) {
+                    uriBuilder.append(key, entry.getValue());
                 }
             }
+        }
 
-            final URI uri = uriBuilder.makeURI();
-            uriRequested = uri;
-            return uri;
-        } catch (URISyntaxException e) {
-            throw new SRUClientException("error while building request URI", e);
+        return uriBuilder;
+    }
+
+
+    /*
+     * Create a key, that identifies the response to this request, e.g. for
+     * caching. The parameters are sorted, so the key does not depend on the
+     * order in which they were set or on the request method. The key is
+     * built from the collected parameters directly, i.e. no request URI or
+     * body is created or parsed. The authentication context is part of the
+     * key, if authentication is sent.
+     * This is not public API.
+     */
+    final String makeKey(SRUVersion defaultVersion,
+            SRURequestMethod defaultRequestMethod) throws SRUClientException {
+        if (defaultVersion == null) {
+            throw new NullPointerException("defaultVersion == null");
+        }
+        if (defaultRequestMethod == null) {
+            throw new NullPointerException("defaultRequestMethod == null");
         }
+        final URIHelper uriBuilder =
+                makeParameters((version != null) ? version : defaultVersion);
+        final List<NameValuePair> parameters;
+        if (baseURI.getRawQuery() != null) {
+            parameters = new ArrayList<>(URLEncodedUtils.parse(baseURI,
+                    StandardCharsets.UTF_8));
+            parameters.addAll(uriBuilder.parameters);
+        } else {
+            parameters = new ArrayList<>(uriBuilder.parameters);
+        }
+        Collections.sort(parameters, PARAMETER_ORDER);
+
+        final StringBuilder sb = new StringBuilder();
+        final String s = baseURI.toString();
+        final int idx = s.indexOf('?');
+        sb.append((idx != -1) ? s.substring(0, idx) : s);
+        sb.append('?');
+        sb.append(URLEncodedUtils.format(parameters, StandardCharsets.UTF_8));
+        sb.append('\n').append(strictMode);
+        if (sendAuthentication && (authenticationContext != null)) {
+            sb.append('\n').append(new TreeMap<>(authenticationContext));
+        }
+        appendKey(sb);
+        return sb.toString();
+    }
+
+
+    /*
+     * hook for sub-classes to add client-side settings, that affect the
+     * response objects, but are not sent to the endpoint
+     */
+    void appendKey(StringBuilder sb) {
     }
 
 
@@ -33,7 +33,8 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
     private final T request;
     private final List<SRUDiagnostic> diagnostics;
     private final List<SRUExtraResponseData> extraResponseData;
-    private final int totalBytesTransferred;
+    private final long totalBytesTransferred;
+    private final long totalBytesDecoded;
     private final long timeTotal;
     private final long timeQueued;
     private final long timeNetwork;
@@ -51,6 +52,8 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
      *            none.
      * @param totalBytesTransferred
      *            the total number of bytes transferred for this request
+     * @param totalBytesDecoded
+     *            the total number of bytes of the decoded response
      * @param timeTotal
      *            the total number of milliseconds elapsed while performing this
      *            request
@@ -67,7 +70,8 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
     protected SRUAbstractResponse(T request,
             List<SRUDiagnostic> diagnostics,
             List<SRUExtraResponseData> extraResponseData,
-            int totalBytesTransferred,
+            long totalBytesTransferred,
+            long totalBytesDecoded,
             long timeTotal,
             long timeQueued,
             long timeNetwork,
@@ -81,6 +85,7 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
                 ? Collections.unmodifiableList(extraResponseData)
                 : null;
         this.totalBytesTransferred = totalBytesTransferred;
+        this.totalBytesDecoded     = totalBytesDecoded;
         this.timeTotal             = timeTotal;
         this.timeQueued            = timeQueued;
         this.timeNetwork           = timeNetwork;
@@ -265,7 +270,8 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
 
 
     /**
-     * Get the total number of bytes transferred for this request.
+     * Get the total number of bytes transferred for this request. If the
+     * response was compressed, this is the number of compressed bytes.
      *
      * @return the total number of bytes or <code>-1</code> if not available
      */
@@ -274,6 +280,18 @@ class SRUAbstractResponse<T extends SRUAbstractRequest> {
     }
 
 
+    /**
+     * Get the total number of bytes of the decoded response for this request.
+     * If the response was not compressed, this is the same value as
+     * {@link #getTotalBytesTransferred()}.
+     *
+     * @return the total number of bytes or <code>-1</code> if not available
+     */
+    public long getTotalBytesDecoded() {
+        return totalBytesDecoded;
+    }
+
+
     /**
      * Get the total number of milliseconds elapsed for this request.
      *
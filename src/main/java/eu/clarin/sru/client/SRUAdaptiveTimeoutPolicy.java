@@ -0,0 +1,192 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/**
+ * A policy for deriving per-endpoint timeouts from the observed latency
+ * distribution of an endpoint.
+ * <p>
+ * The timeout for an endpoint is computed as the configured percentile of its
+ * recent latencies multiplied by a factor and is bounded by a floor and a
+ * ceiling value. Until enough latency samples are available for an endpoint,
+ * the timeouts configured in {@link SRUClientConfig} are used.
+ * </p>
+ * <p>
+ * This policy is only used by the {@link SRUThreadedClient}, which keeps track
+ * of the endpoint statistics. It is ignored, if a customized HTTP client is
+ * provided.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setAdaptiveTimeoutPolicy(SRUAdaptiveTimeoutPolicy)
+ * @see SRUEndpointStatistics#getLatencyPercentile(double)
+ */
+public final class SRUAdaptiveTimeoutPolicy {
+    /** default percentile to be used, if not otherwise specified */
+    public static final double DEFAULT_PERCENTILE = 99;
+    /**
+     * default number of latency samples required before adaptive timeouts
+     * are used, if not otherwise specified
+     */
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    private final double percentile;
+    private final double factor;
+    private final int floor;
+    private final int ceiling;
+    private final int minSamples;
+
+
+    /**
+     * Constructor.
+     *
+     * @param percentile
+     *            the percentile of the latency distribution, e.g.
+     *            <code>99</code>
+     * @param factor
+     *            the factor to multiply the percentile with
+     * @param floor
+     *            the minimum timeout in milliseconds
+     * @param ceiling
+     *            the maximum timeout in milliseconds
+     * @param minSamples
+     *            the number of latency samples required before adaptive
+     *            timeouts are used for an endpoint
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUAdaptiveTimeoutPolicy(double percentile, double factor,
+            int floor, int ceiling, int minSamples) {
+        if ((percentile <= 0) || (percentile > 100)) {
+            throw new IllegalArgumentException(
+                    "percentile must be within (0, 100]");
+        }
+        if (factor < 1) {
+            throw new IllegalArgumentException("factor < 1");
+        }
+        if (floor < 1) {
+            throw new IllegalArgumentException("floor < 1");
+        }
+        if (ceiling < floor) {
+            throw new IllegalArgumentException("ceiling < floor");
+        }
+        if (minSamples < 1) {
+            throw new IllegalArgumentException("minSamples < 1");
+        }
+        this.percentile = percentile;
+        this.factor     = factor;
+        this.floor      = floor;
+        this.ceiling    = ceiling;
+        this.minSamples = minSamples;
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_PERCENTILE} and
+     * {@link #DEFAULT_MIN_SAMPLES}.
+     *
+     * @param factor
+     *            the factor to multiply the percentile with
+     * @param floor
+     *            the minimum timeout in milliseconds
+     * @param ceiling
+     *            the maximum timeout in milliseconds
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUAdaptiveTimeoutPolicy(double factor, int floor, int ceiling) {
+        this(DEFAULT_PERCENTILE, factor, floor, ceiling, DEFAULT_MIN_SAMPLES);
+    }
+
+
+    /**
+     * Get the percentile of the latency distribution.
+     *
+     * @return the percentile
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+
+    /**
+     * Get the factor the percentile is multiplied with.
+     *
+     * @return the factor
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+
+    /**
+     * Get the minimum timeout.
+     *
+     * @return the minimum timeout in milliseconds
+     */
+    public int getFloor() {
+        return floor;
+    }
+
+
+    /**
+     * Get the maximum timeout.
+     *
+     * @return the maximum timeout in milliseconds
+     */
+    public int getCeiling() {
+        return ceiling;
+    }
+
+
+    /**
+     * Get the number of latency samples required before adaptive timeouts
+     * are used for an endpoint.
+     *
+     * @return the number of latency samples
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+
+    /**
+     * Compute the timeout for an endpoint.
+     *
+     * @param statistics
+     *            the statistics of the endpoint
+     * @return the timeout in milliseconds or <code>-1</code>, if not enough
+     *         latency samples are available
+     */
+    int computeTimeout(SRUEndpointStatistics statistics) {
+        if (statistics.getLatencySampleCount() < minSamples) {
+            return -1;
+        }
+        final long latency = statistics.getLatencyPercentile(percentile);
+        if (latency < 0) {
+            return -1;
+        }
+        final double timeout = latency * factor;
+        if (timeout < floor) {
+            return floor;
+        } else if (timeout > ceiling) {
+            return ceiling;
+        } else {
+            return (int) timeout;
+        }
+    }
+
+} // class SRUAdaptiveTimeoutPolicy
@@ -0,0 +1,275 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/*
+ * The default transport based on Apache HttpClient.
+ */
+final class SRUApacheHttpTransport implements SRUTransport {
+    private static final String USER_AGENT = "SRU-Client/1.0.0";
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+    private static final String ATTR_TRANSPORT_REQUEST =
+            "eu.clarin.sru.client.transport-request";
+    private static final Logger logger =
+            LoggerFactory.getLogger(SRUApacheHttpTransport.class);
+    private final CloseableHttpClient httpClient;
+    private final HttpContext httpContext;
+    /* null, if a customized HTTP client is used */
+    private final RequestConfig requestConfig;
+
+
+    /*
+     * create a transport with a HTTP client configured according to the
+     * given client configuration
+     */
+    SRUApacheHttpTransport(SRUClientConfig config) {
+        if (config == null) {
+            throw new NullPointerException("config == null");
+        }
+        this.requestConfig = createRequestConfig(config.getConnectTimeout(),
+                config.getSocketTimeout());
+        this.httpClient = createHttpClient(requestConfig,
+                config.getConnectionKeepAlive());
+        this.httpContext = null;
+    }
+
+
+    /*
+     * create a transport for a customized HTTP client
+     */
+    SRUApacheHttpTransport(CloseableHttpClient httpClient,
+            HttpContext httpContext) {
+        if (httpClient == null) {
+            throw new NullPointerException("httpClient == null");
+        }
+        this.httpClient    = httpClient;
+        this.httpContext   = httpContext;
+        this.requestConfig = null;
+    }
+
+
+    @Override
+    public SRUTransportResponse execute(SRUTransportRequest request)
+            throws IOException {
+        final HttpRequestBase httpRequest;
+        if (request.getMethod() == SRURequestMethod.POST) {
+            final HttpPost post = new HttpPost(request.getURI());
+            post.setEntity(new ByteArrayEntity(request.getBody(),
+                    ContentType.parse(request.getContentType())));
+            httpRequest = post;
+        } else {
+            httpRequest = new HttpGet(request.getURI());
+        }
+        final int timeout = request.getTimeout();
+        if ((timeout > 0) && (requestConfig != null)) {
+            logger.debug("using adaptive timeout of {} milli(s)", timeout);
+            httpRequest.setConfig(RequestConfig.copy(requestConfig)
+                    .setConnectTimeout(timeout)
+                    .setSocketTimeout(timeout)
+                    .build());
+        }
+        for (Map.Entry<String, String> header :
+                request.getHeaders().entrySet()) {
+            httpRequest.addHeader(header.getKey(), header.getValue());
+        }
+        request.setAbortCallback(new Runnable() {
+            @Override
+            public void run() {
+                httpRequest.abort();
+            }
+        });
+
+        final HttpContext context;
+        if (requestConfig != null) {
+            /* pass the request to the request executor */
+            context = new BasicHttpContext();
+            context.setAttribute(ATTR_TRANSPORT_REQUEST, request);
+        } else {
+            context = httpContext;
+        }
+        return new Response(httpClient.execute(httpRequest, context));
+    }
+
+
+    private static RequestConfig createRequestConfig(int connectTimeout,
+            int socketTimeout) {
+        return RequestConfig.custom()
+                .setAuthenticationEnabled(false)
+                .setRedirectsEnabled(true)
+                .setMaxRedirects(4)
+                .setCircularRedirectsAllowed(false)
+                .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(0) /* infinite */
+                .build();
+    }
+
+
+    private static CloseableHttpClient createHttpClient(
+            RequestConfig requestConfig, final int keepAlive) {
+        final PoolingHttpClientConnectionManager manager =
+                new PoolingHttpClientConnectionManager();
+        manager.setDefaultMaxPerRoute(8);
+        manager.setMaxTotal(128);
+        if (keepAlive > 0) {
+            /* check pooled connections, that have been idle for a while */
+            manager.setValidateAfterInactivity(
+                    Math.min(keepAlive, VALIDATE_AFTER_INACTIVITY));
+        }
+
+        final SocketConfig socketConfig = SocketConfig.custom()
+                .setSoReuseAddress(true)
+                .setSoLinger(0)
+                .build();
+
+        final HttpClientBuilder builder = HttpClients.custom()
+                .setUserAgent(USER_AGENT)
+                .setConnectionManager(manager)
+                .setDefaultSocketConfig(socketConfig)
+                .setDefaultRequestConfig(requestConfig)
+                .setRequestExecutor(new EventRequestExecutor())
+                /*
+                 * content encoding is negotiated and decoded by the client,
+                 * so compressed and decoded bytes can be counted
+                 */
+                .disableContentCompression();
+        if (keepAlive > 0) {
+            builder.setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+                @Override
+                public long getKeepAliveDuration(HttpResponse response,
+                        HttpContext context) {
+                    final long duration = DefaultConnectionKeepAliveStrategy
+                            .INSTANCE.getKeepAliveDuration(response, context);
+                    return (duration > 0)
+                            ? Math.min(duration, keepAlive)
+                            : keepAlive;
+                }
+            });
+        } else {
+            builder.setConnectionReuseStrategy(
+                    new NoConnectionReuseStrategy());
+        }
+        return builder.build();
+    }
+
+
+    private static final class Response implements SRUTransportResponse {
+        private final CloseableHttpResponse response;
+
+
+        private Response(CloseableHttpResponse response) {
+            this.response = response;
+        }
+
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+
+        @Override
+        public String getHeader(String name) {
+            final Header header = response.getFirstHeader(name);
+            return (header != null) ? header.getValue() : null;
+        }
+
+
+        @Override
+        public Map<String, String> getHeaders() {
+            final Map<String, String> result = new LinkedHashMap<>();
+            for (Header header : response.getAllHeaders()) {
+                final String value = result.get(header.getName());
+                if (value != null) {
+                    result.put(header.getName(),
+                            value + ", " + header.getValue());
+                } else {
+                    result.put(header.getName(), header.getValue());
+                }
+            }
+            return result;
+        }
+
+
+        @Override
+        public InputStream getBody() throws IOException {
+            final HttpEntity entity = response.getEntity();
+            return (entity != null) ? entity.getContent() : null;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            response.close();
+        }
+    } // class Response
+
+
+    /*
+     * The request executor is invoked by the HTTP client after a connection
+     * to the endpoint has been leased from the pool and established.
+     */
+    private static final class EventRequestExecutor
+            extends HttpRequestExecutor {
+        @Override
+        public HttpResponse execute(HttpRequest request,
+                HttpClientConnection connection, HttpContext context)
+                throws IOException, HttpException {
+            final Object r = context.getAttribute(ATTR_TRANSPORT_REQUEST);
+            if (r instanceof SRUTransportRequest) {
+                ((SRUTransportRequest) r).connectionAcquired();
+            }
+            return super.execute(request, connection, context);
+        }
+    } // class EventRequestExecutor
+
+} // class SRUApacheHttpTransport
@@ -0,0 +1,31 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/*
+ * Internal extension for response handlers, that want to receive the number
+ * of bytes transferred and the number of bytes of the decoded response as
+ * long values in addition to the request statistics. The values are -1, if
+ * byte statistics are disabled.
+ */
+interface SRUByteStatisticsHandler {
+
+    public void onByteStatistics(long totalBytesTransferred,
+            long totalBytesDecoded);
+
+} // interface SRUByteStatisticsHandler
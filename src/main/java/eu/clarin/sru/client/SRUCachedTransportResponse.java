@@ -0,0 +1,26 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/*
+ * Internal marker for transport responses, that are answered from a cache
+ * instead of the endpoint. Such responses must not affect the statistics or
+ * the circuit breaker of the endpoint.
+ */
+interface SRUCachedTransportResponse extends SRUTransportResponse {
+} // interface SRUCachedTransportResponse
@@ -0,0 +1,126 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.util.concurrent.TimeUnit;
+
+
+/*
+ * The circuit breaker of a single endpoint. Callers must ask for permission
+ * before performing a request and must report the outcome of every permitted
+ * request. State transitions are returned to the caller, so it can notify
+ * listeners outside of the lock.
+ */
+final class SRUCircuitBreaker {
+    private final int failureThreshold;
+    private final long coolDown;
+    private SRUCircuitState state = SRUCircuitState.CLOSED;
+    private int failures = 0;
+    private long openedAt;
+    private boolean probing = false;
+
+
+    SRUCircuitBreaker(SRUCircuitBreakerPolicy policy) {
+        if (policy == null) {
+            throw new NullPointerException("policy == null");
+        }
+        this.failureThreshold = policy.getFailureThreshold();
+        this.coolDown = TimeUnit.MILLISECONDS.toNanos(policy.getCoolDown());
+    }
+
+
+    synchronized SRUCircuitState getState() {
+        return state;
+    }
+
+
+    /*
+     * Returns the previous state, if the request is permitted or null, if the
+     * request must fail immediately.
+     */
+    synchronized SRUCircuitState acquire() {
+        switch (state) {
+        case CLOSED:
+            return state;
+        case OPEN:
+            if ((System.nanoTime() - openedAt) < coolDown) {
+                return null;
+            }
+            state   = SRUCircuitState.HALF_OPEN;
+            probing = true;
+            return SRUCircuitState.OPEN;
+        case HALF_OPEN:
+            if (probing) {
+                return null;
+            }
+            probing = true;
+            return state;
+        default:
+            throw new IllegalStateException("invalid state: " + state);
+        }
+    }
+
+
+    /*
+     * Returns the previous state, if the state changed or null otherwise.
+     */
+    synchronized SRUCircuitState onSuccess() {
+        failures = 0;
+        if (state == SRUCircuitState.CLOSED) {
+            return null;
+        }
+        final SRUCircuitState previous = state;
+        state   = SRUCircuitState.CLOSED;
+        probing = false;
+        return previous;
+    }
+
+
+    /*
+     * Returns the previous state, if the state changed or null otherwise.
+     */
+    synchronized SRUCircuitState onFailure() {
+        switch (state) {
+        case CLOSED:
+            if (++failures < failureThreshold) {
+                return null;
+            }
+            break;
+        case HALF_OPEN:
+            break;
+        default:
+            /* a request permitted before the circuit opened */
+            return null;
+        }
+        final SRUCircuitState previous = state;
+        state    = SRUCircuitState.OPEN;
+        openedAt = System.nanoTime();
+        probing  = false;
+        return previous;
+    }
+
+
+    /*
+     * The outcome of the request is unknown, e.g. it was cancelled.
+     */
+    synchronized void onCancelled() {
+        if (state == SRUCircuitState.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+} // class SRUCircuitBreaker
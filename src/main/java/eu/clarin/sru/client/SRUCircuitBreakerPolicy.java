@@ -0,0 +1,104 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/**
+ * A policy for per-endpoint circuit breakers.
+ * <p>
+ * After a number of consecutive failed requests to an endpoint, its circuit
+ * breaker opens and all requests to the endpoint fail immediately with a
+ * {@link SRUCircuitOpenException}, instead of occupying a worker thread until
+ * the connect or socket timeout expires. After the cool-down period, a single
+ * probe request is performed: if it succeeds, the circuit breaker closes
+ * again, otherwise it stays open for another cool-down period.
+ * </p>
+ * <p>
+ * Only transport errors and timeouts count as failures, i.e. an endpoint that
+ * responds with an invalid response or a fatal diagnostic is considered
+ * reachable. This policy is only used by the {@link SRUThreadedClient}.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setCircuitBreakerPolicy(SRUCircuitBreakerPolicy)
+ * @see SRUEndpointStatistics#getCircuitState()
+ */
+public final class SRUCircuitBreakerPolicy {
+    /**
+     * default number of consecutive failures, after which the circuit breaker
+     * opens, if not otherwise specified
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** default cool-down period, if not otherwise specified */
+    public static final int DEFAULT_COOL_DOWN = 30000;
+    private final int failureThreshold;
+    private final int coolDown;
+
+
+    /**
+     * Constructor.
+     *
+     * @param failureThreshold
+     *            the number of consecutive failures, after which the circuit
+     *            breaker opens
+     * @param coolDown
+     *            the cool-down period in milliseconds, after which a probe
+     *            request is performed
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUCircuitBreakerPolicy(int failureThreshold, int coolDown) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold < 1");
+        }
+        if (coolDown < 1) {
+            throw new IllegalArgumentException("coolDown < 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.coolDown         = coolDown;
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_FAILURE_THRESHOLD} and
+     * {@link #DEFAULT_COOL_DOWN}.
+     */
+    public SRUCircuitBreakerPolicy() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN);
+    }
+
+
+    /**
+     * Get the number of consecutive failures, after which the circuit breaker
+     * opens.
+     *
+     * @return the number of consecutive failures
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+
+    /**
+     * Get the cool-down period, after which a probe request is performed.
+     *
+     * @return the cool-down period in milliseconds
+     */
+    public int getCoolDown() {
+        return coolDown;
+    }
+
+} // class SRUCircuitBreakerPolicy
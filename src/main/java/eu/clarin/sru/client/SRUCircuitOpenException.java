@@ -0,0 +1,55 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+
+/**
+ * SRU client exception raised when a request was not performed, because the
+ * circuit breaker of its endpoint is open.
+ *
+ * @see SRUCircuitBreakerPolicy
+ */
+@SuppressWarnings("serial")
+public class SRUCircuitOpenException extends SRUClientException {
+    private final URI baseURI;
+
+
+    /**
+     * Constructor
+     *
+     * @param message
+     *            an error message
+     * @param baseURI
+     *            the baseURI of the endpoint
+     */
+    public SRUCircuitOpenException(String message, URI baseURI) {
+        super(message);
+        this.baseURI = baseURI;
+    }
+
+
+    /**
+     * Get the baseURI of the endpoint, whose circuit breaker is open.
+     *
+     * @return the baseURI of the endpoint
+     */
+    public URI getBaseURI() {
+        return baseURI;
+    }
+
+} // class SRUCircuitOpenException
@@ -0,0 +1,41 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+/**
+ * State of the circuit breaker of an endpoint.
+ *
+ * @see SRUCircuitBreakerPolicy
+ * @see SRUEndpointStatistics#getCircuitState()
+ */
+public enum SRUCircuitState {
+    /**
+     * The endpoint is healthy and requests are performed.
+     */
+    CLOSED,
+
+    /**
+     * The endpoint is considered down and requests fail immediately.
+     */
+    OPEN,
+
+    /**
+     * The cool-down period has passed and a single probe request is performed
+     * to check, if the endpoint has recovered.
+     */
+    HALF_OPEN
+} // enum SRUCircuitState
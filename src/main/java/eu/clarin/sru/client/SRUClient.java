@@ -55,6 +55,10 @@ public class SRUClient {
     private static final Logger logger = LoggerFactory.getLogger(SRUClient.class);
     private final SRUSimpleClient client;
     private final Handler handler;
+    private final SRUExplainCache explainCache;
+    private final SRUResponseCache responseCache;
+    private final SRUVersion defaultVersion;
+    private final SRURequestMethod defaultRequestMethod;
     /* common */
     private List<SRUDiagnostic> diagnostics;
     private List<SRUExtraResponseData> extraResponseData;
@@ -67,8 +71,11 @@ public class SRUClient {
     private int nextRecordPosition;
     /* explain/searchRetrieve */
     private List<SRURecord> records;
+    /* response cache */
+    private boolean responseCached;
     /* statistics */
-    private int totalBytesTransferred;
+    private long totalBytesTransferred;
+    private long totalBytesDecoded;
     private long timeTotal;
     private long timeQueued;
     private long timeNetwork;
@@ -121,6 +128,10 @@ public class SRUClient {
         }
         this.client = new SRUSimpleClient(config);
         this.handler = new Handler(config);
+        this.explainCache = config.getExplainCache();
+        this.responseCache = config.getResponseCache();
+        this.defaultVersion = config.getDefaultVersion();
+        this.defaultRequestMethod = config.getDefaultRequestMethod();
         try {
             synchronized (documentBuilderFactory) {
                 documentBuilderFactory.setNamespaceAware(true);
@@ -151,16 +162,50 @@ public class SRUClient {
         if (request == null) {
             throw new NullPointerException("request == null");
         }
+        responseCached = false;
         try {
+            String cacheKey = null;
+            SRUExplainCache.CachedResponse cached = null;
+            if (explainCache != null) {
+                cacheKey = SRUExplainCache.makeKey(request, defaultVersion,
+                        defaultRequestMethod);
+                cached = explainCache.get(cacheKey);
+                if (cached != null) {
+                    client.setConditionalRequest(cached.getETag(),
+                            cached.getLastModified());
+                }
+            }
             client.explain(request, handler);
+            responseCached = client.isResponseCached();
             SRURecord record = null;
-            if ((records != null) && !records.isEmpty()) {
-                record = records.get(0);
+            if ((cached != null) && client.isNotModified()) {
+                logger.debug("reusing cached explain response for {}",
+                        request.getBaseURI());
+                explainCache.onHit();
+                diagnostics       = cached.getDiagnostics();
+                extraResponseData = cached.getExtraResponseData();
+                record            = cached.getRecord();
+            } else {
+                if ((records != null) && !records.isEmpty()) {
+                    record = records.get(0);
+                }
+                if (explainCache != null) {
+                    final String etag = client.getResponseETag();
+                    final String lastModified =
+                            client.getResponseLastModified();
+                    explainCache.onMiss(cacheKey,
+                            ((etag != null) || (lastModified != null))
+                            ? new SRUExplainCache.CachedResponse(
+                                    request.getBaseURI(), etag, lastModified,
+                                    diagnostics, extraResponseData, record)
+                            : null);
+                }
             }
             return new SRUExplainResponse(request,
                     diagnostics,
                     extraResponseData,
                     totalBytesTransferred,
+                    totalBytesDecoded,
                     timeTotal,
                     timeQueued,
                     timeNetwork,
@@ -188,17 +233,34 @@ public class SRUClient {
         if (request == null) {
             throw new NullPointerException("request == null");
         }
+        responseCached = false;
         try {
+            String cacheKey = null;
+            if (responseCache != null) {
+                cacheKey = request.makeKey(defaultVersion,
+                        defaultRequestMethod);
+                final SRUScanResponse cached =
+                        getCachedResponse(cacheKey, SRUScanResponse.class);
+                if (cached != null) {
+                    return cached;
+                }
+            }
             client.scan(request, handler);
-            return new SRUScanResponse(request,
+            responseCached = client.isResponseCached();
+            final SRUScanResponse response = new SRUScanResponse(request,
                     diagnostics,
                     extraResponseData,
                     totalBytesTransferred,
+                    totalBytesDecoded,
                     timeTotal,
                     timeQueued,
                     timeNetwork,
                     timeParsing,
                     terms);
+            if (responseCache != null) {
+                responseCache.put(cacheKey, response);
+            }
+            return response;
         } finally {
             reset();
         }
@@ -222,32 +284,84 @@ public class SRUClient {
         if (request == null) {
             throw new NullPointerException("request == null");
         }
+        responseCached = false;
         try {
+            String cacheKey = null;
+            if (responseCache != null) {
+                cacheKey = request.makeKey(defaultVersion,
+                        defaultRequestMethod);
+                final SRUSearchRetrieveResponse cached = getCachedResponse(
+                        cacheKey, SRUSearchRetrieveResponse.class);
+                if (cached != null) {
+                    return cached;
+                }
+            }
             client.searchRetrieve(request, handler);
-            return new SRUSearchRetrieveResponse(request,
-                    diagnostics,
-                    extraResponseData,
-                    totalBytesTransferred,
-                    timeTotal,
-                    timeQueued,
-                    timeNetwork,
-                    timeParsing,
-                    numberOfRecords,
-                    resultSetId,
-                    resultSetIdleTime,
-                    records,
-                    nextRecordPosition);
+            responseCached = client.isResponseCached();
+            final SRUSearchRetrieveResponse response =
+                    new SRUSearchRetrieveResponse(request,
+                        diagnostics,
+                        extraResponseData,
+                        totalBytesTransferred,
+                        totalBytesDecoded,
+                        timeTotal,
+                        timeQueued,
+                        timeNetwork,
+                        timeParsing,
+                        numberOfRecords,
+                        resultSetId,
+                        resultSetIdleTime,
+                        records,
+                        nextRecordPosition);
+            if (responseCache != null) {
+                responseCache.put(cacheKey, response);
+            }
+            return response;
         } finally {
             reset();
         }
     }
 
 
+    /*
+     * Returns true, if the last response was taken from the response cache
+     * or the disk cache of the transport, i.e. no request has been sent to
+     * the endpoint.
+     */
+    boolean isResponseCached() {
+        return responseCached;
+    }
+
+
+    private <T extends SRUAbstractResponse<?>> T getCachedResponse(
+            String cacheKey, Class<T> type) {
+        final T response = responseCache.get(cacheKey, type);
+        if (response != null) {
+            logger.debug("using cached response for {}", cacheKey);
+            responseCached = true;
+            /* no request is sent, so discard the overrides for it */
+            client.setTimeout(-1);
+            client.setAbortHandle(null);
+        }
+        return response;
+    }
+
+
     void setTimeQueued(long timeQueued) {
         this.timeQueued = TimeUnit.NANOSECONDS.toMillis(timeQueued);
     }
 
 
+    void setTimeout(int timeout) {
+        client.setTimeout(timeout);
+    }
+
+
+    void setAbortHandle(SRUAbortHandle handle) {
+        client.setAbortHandle(handle);
+    }
+
+
     private void addTerm(SRUTerm term) {
         if (terms == null) {
             terms = new LinkedList<>();
@@ -279,6 +393,7 @@ public class SRUClient {
         records               = null;
         /* statistics */
         totalBytesTransferred = -1;
+        totalBytesDecoded     = -1;
         timeQueued            = -1;
         timeTotal             = -1;
         timeNetwork           = -1;
@@ -287,7 +402,8 @@ public class SRUClient {
 
 
 
-    private class Handler extends SRUDefaultHandlerAdapter {
+    private class Handler extends SRUDefaultHandlerAdapter
+            implements SRUByteStatisticsHandler {
         private final List<SRUExtraResponseDataParser> parsers;
 
 
@@ -442,7 +558,6 @@ public class SRUClient {
         @Override
         public void onRequestStatistics(int totalBytesTransferred,
                 long millisTotal, long millisNetwork, long millisProcessing) {
-            SRUClient.this.totalBytesTransferred = totalBytesTransferred;
             if (SRUClient.this.timeQueued > 0) {
                 SRUClient.this.timeTotal = timeQueued  + millisTotal;
             } else {
@@ -451,6 +566,14 @@ public class SRUClient {
             SRUClient.this.timeNetwork = millisNetwork;
             SRUClient.this.timeParsing = millisProcessing;
         }
+
+
+        @Override
+        public void onByteStatistics(long totalBytesTransferred,
+                long totalBytesDecoded) {
+            SRUClient.this.totalBytesTransferred = totalBytesTransferred;
+            SRUClient.this.totalBytesDecoded     = totalBytesDecoded;
+        }
     } // inner class Handler
 
 
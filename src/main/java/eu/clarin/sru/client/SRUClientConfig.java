@@ -19,6 +19,7 @@ package eu.clarin.sru.client;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -29,19 +30,57 @@ import org.apache.http.impl.client.CloseableHttpClient;
 public class SRUClientConfig {
     /** default version the client will use, if not otherwise specified */
     public static final SRUVersion DEFAULT_SRU_VERSION = SRUVersion.VERSION_1_2;
+    /** default request method to be used, if not otherwise specified */
+    public static final SRURequestMethod DEFAULT_REQUEST_METHOD =
+            SRURequestMethod.GET;
     /** default connect timeout to be used, if not otherwise specified */
     public static final int DEFAULT_CONNECT_TIMEOUT = -1;
     /** default socket timeout to be used, if not otherwise specified */
     public static final int DEFAULT_SOCKET_TIMEOUT  = -1;
+    /** default request timeout to be used, if not otherwise specified */
+    public static final int DEFAULT_REQUEST_TIMEOUT = 0;
+    /**
+     * default for content compression to be used, if not otherwise specified
+     */
+    public static final boolean DEFAULT_CONTENT_COMPRESSION = true;
+    /**
+     * default connection keep-alive to be used, if not otherwise specified
+     */
+    public static final int DEFAULT_CONNECTION_KEEP_ALIVE = 0;
+    /**
+     * default for request coalescing to be used, if not otherwise specified
+     */
+    public static final boolean DEFAULT_REQUEST_COALESCING = false;
+    /**
+     * default for byte statistics to be used, if not otherwise specified
+     */
+    public static final boolean DEFAULT_BYTE_STATISTICS = true;
     private final SRUVersion defaultVersion;
+    private final SRURequestMethod defaultRequestMethod;
     private final int connectTimeout;
     private final int socketTimeout;
+    private final int requestTimeout;
+    private final boolean contentCompression;
+    private final int connectionKeepAlive;
+    private final SRUAdaptiveTimeoutPolicy adaptiveTimeoutPolicy;
+    private final SRUHedgingPolicy hedgingPolicy;
+    private final SRURetryPolicy retryPolicy;
+    private final SRUCircuitBreakerPolicy circuitBreakerPolicy;
+    private final SRUTransport transport;
     private final CloseableHttpClient httpClient;
     private final HttpClientContext httpContext;
     private final SRURequestAuthenticator requestAuthenticator;
+    private final SRUExplainCache explainCache;
+    private final SRUResponseCache responseCache;
+    private final SRUDiskCache diskCache;
+    private final boolean requestCoalescing;
+    private final boolean byteStatistics;
+    private final SRUParserSettings parserSettings;
+    private final ForkJoinPool recordParsingPool;
     private final int threadCount;
     private final List<SRURecordDataParser> recordParsers;
     private final List<SRUExtraResponseDataParser> extraDataParsers;
+    private final List<SRUClientEventListener> eventListeners;
 
 
     /**
@@ -54,6 +93,16 @@ public class SRUClientConfig {
     }
 
 
+    /**
+     * Get default HTTP request method to be used.
+     *
+     * @return the default request method to be used.
+     */
+    public SRURequestMethod getDefaultRequestMethod() {
+        return defaultRequestMethod;
+    }
+
+
     /**
      * Get the connect timeout. This value is ignored if a customized HTTP
      * client is provided.
@@ -77,7 +126,104 @@ public class SRUClientConfig {
 
 
     /**
-     * Get the customized HTTP client which is to be used.
+     * Get the default request timeout. This value is used for all requests,
+     * that do not specify a request timeout themselves.
+     *
+     * @return the request timeout
+     * @see SRUAbstractRequest#setRequestTimeout(int)
+     */
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+
+    /**
+     * Check, if the client asks endpoints for compressed responses. This
+     * value is ignored if a customized HTTP client is provided.
+     *
+     * @return <code>true</code> if content compression is enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isContentCompressionEnabled() {
+        return contentCompression;
+    }
+
+
+    /**
+     * Get the maximum time a connection is kept open for reuse by subsequent
+     * requests. This value is ignored if a customized HTTP client is
+     * provided.
+     *
+     * @return the connection keep-alive in milliseconds or <code>0</code>, if
+     *         connections are not reused
+     */
+    public int getConnectionKeepAlive() {
+        return connectionKeepAlive;
+    }
+
+
+    /**
+     * Get the policy for adaptive per-endpoint timeouts. This value is only
+     * relevant for the {@link SRUThreadedClient} and is ignored if a
+     * customized HTTP client is provided.
+     *
+     * @return the adaptive timeout policy or <code>null</code> if adaptive
+     *         timeouts are disabled
+     */
+    public SRUAdaptiveTimeoutPolicy getAdaptiveTimeoutPolicy() {
+        return adaptiveTimeoutPolicy;
+    }
+
+
+    /**
+     * Get the policy for hedging requests. This value is only relevant for
+     * the {@link SRUThreadedClient}.
+     *
+     * @return the hedging policy or <code>null</code> if hedging is disabled
+     */
+    public SRUHedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+
+    /**
+     * Get the policy for retrying requests after transient transport errors.
+     *
+     * @return the retry policy or <code>null</code> if requests are not
+     *         retried
+     */
+    public SRURetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+
+    /**
+     * Get the policy for per-endpoint circuit breakers. This value is only
+     * relevant for the {@link SRUThreadedClient}.
+     *
+     * @return the circuit breaker policy or <code>null</code> if circuit
+     *         breakers are disabled
+     */
+    public SRUCircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return circuitBreakerPolicy;
+    }
+
+
+    /**
+     * Get the transport which is to be used for performing requests.
+     *
+     * @return a transport instance or <code>null</code>, if the default
+     *         transport based on Apache HttpClient is to be used
+     * @see SRUTransport
+     */
+    public SRUTransport getTransport() {
+        return transport;
+    }
+
+
+    /**
+     * Get the customized HTTP client which is to be used. Only relevant, if no
+     * transport is set, see {@link #getTransport()}.
      *
      * @return a configured HTTP client instance or <code>null</code>
      */
@@ -107,6 +253,89 @@ public class SRUClientConfig {
     }
 
 
+    /**
+     * Get the cache for <em>explain</em> responses.
+     *
+     * @return the explain cache or <code>null</code>, if explain responses
+     *         are not cached
+     * @see SRUExplainCache
+     */
+    public SRUExplainCache getExplainCache() {
+        return explainCache;
+    }
+
+
+    /**
+     * Get the cache for <em>scan</em> and <em>searchRetrieve</em> responses.
+     *
+     * @return the response cache or <code>null</code>, if responses are not
+     *         cached
+     * @see SRUResponseCache
+     */
+    public SRUResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+
+    /**
+     * Get the persistent cache for raw responses.
+     *
+     * @return the disk cache or <code>null</code>, if responses are not
+     *         cached on disk
+     * @see SRUDiskCache
+     */
+    public SRUDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+
+    /**
+     * Check, if identical requests, that are performed concurrently, share a
+     * single HTTP exchange. This value is only relevant for the
+     * {@link SRUThreadedClient}.
+     *
+     * @return <code>true</code> if request coalescing is enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescing;
+    }
+
+
+    /**
+     * Check, if the number of bytes transferred and decoded is counted for
+     * each request.
+     *
+     * @return <code>true</code> if byte statistics are enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isByteStatisticsEnabled() {
+        return byteStatistics;
+    }
+
+
+    /**
+     * Get the settings for the XML parser.
+     *
+     * @return the parser settings
+     * @see SRUParserSettings
+     */
+    public SRUParserSettings getParserSettings() {
+        return parserSettings;
+    }
+
+
+    /**
+     * Get the pool for parsing record data in parallel.
+     *
+     * @return the pool for parsing record data or <code>null</code>, if
+     *         record data is parsed sequentially
+     */
+    public ForkJoinPool getRecordParsingPool() {
+        return recordParsingPool;
+    }
+
+
     /**
      * Get the number of worker threads. This value is only relevant for the
      * {@link SRUThreadedClient}.
@@ -138,13 +367,32 @@ public class SRUClientConfig {
     }
 
 
+    /**
+     * Get the list of event listeners to be notified.
+     *
+     * @return the list of event listeners or <code>null</code> if none
+     */
+    public List<SRUClientEventListener> getEventListeners() {
+        return eventListeners;
+    }
+
+
     private SRUClientConfig(Builder builder) {
         if (builder == null) {
             throw new NullPointerException("builder == null");
         }
         this.defaultVersion   = builder.defaultVersion;
+        this.defaultRequestMethod = builder.defaultRequestMethod;
         this.connectTimeout   = builder.connectTimeout;
         this.socketTimeout    = builder.socketTimeout;
+        this.requestTimeout   = builder.requestTimeout;
+        this.contentCompression = builder.contentCompression;
+        this.connectionKeepAlive = builder.connectionKeepAlive;
+        this.adaptiveTimeoutPolicy = builder.adaptiveTimeoutPolicy;
+        this.hedgingPolicy    = builder.hedgingPolicy;
+        this.retryPolicy      = builder.retryPolicy;
+        this.circuitBreakerPolicy = builder.circuitBreakerPolicy;
+        this.transport        = builder.transport;
         if (builder.httpClient != null) {
             this.httpClient  = builder.httpClient;
             this.httpContext = builder.httpContext;
@@ -153,6 +401,13 @@ public class SRUClientConfig {
             this.httpContext = null;
         }
         this.requestAuthenticator = builder.requestAuthenticator;
+        this.explainCache     = builder.explainCache;
+        this.responseCache    = builder.responseCache;
+        this.diskCache        = builder.diskCache;
+        this.requestCoalescing = builder.requestCoalescing;
+        this.byteStatistics   = builder.byteStatistics;
+        this.parserSettings   = builder.parserSettings;
+        this.recordParsingPool = builder.recordParsingPool;
         this.threadCount      = builder.threadCount;
         if (builder.recordParsers != null) {
             this.recordParsers =
@@ -166,6 +421,12 @@ public class SRUClientConfig {
         } else {
             this.extraDataParsers = null;
         }
+        if (builder.eventListeners != null) {
+            this.eventListeners =
+                    Collections.unmodifiableList(builder.eventListeners);
+        } else {
+            this.eventListeners = null;
+        }
     }
 
 
@@ -177,16 +438,33 @@ public class SRUClientConfig {
      */
     public static class Builder {
         private SRUVersion defaultVersion = DEFAULT_SRU_VERSION;
+        private SRURequestMethod defaultRequestMethod = DEFAULT_REQUEST_METHOD;
         private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
         private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+        private int requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private boolean contentCompression = DEFAULT_CONTENT_COMPRESSION;
+        private int connectionKeepAlive = DEFAULT_CONNECTION_KEEP_ALIVE;
+        private SRUAdaptiveTimeoutPolicy adaptiveTimeoutPolicy = null;
+        private SRUHedgingPolicy hedgingPolicy = null;
+        private SRURetryPolicy retryPolicy = null;
+        private SRUCircuitBreakerPolicy circuitBreakerPolicy = null;
+        private SRUTransport transport = null;
         private CloseableHttpClient httpClient = null;
         private HttpClientContext httpContext = null;
         private SRURequestAuthenticator requestAuthenticator;
+        private SRUExplainCache explainCache = null;
+        private SRUResponseCache responseCache = null;
+        private SRUDiskCache diskCache = null;
+        private boolean requestCoalescing = DEFAULT_REQUEST_COALESCING;
+        private boolean byteStatistics = DEFAULT_BYTE_STATISTICS;
+        private SRUParserSettings parserSettings = SRUParserSettings.DEFAULT;
+        private ForkJoinPool recordParsingPool = null;
         private int threadCount =
                 Runtime.getRuntime().availableProcessors() * 2;
         private List<SRURecordDataParser> recordParsers =
                 new ArrayList<>();
         private List<SRUExtraResponseDataParser> extraDataParsers = null;
+        private List<SRUClientEventListener> eventListeners = null;
 
 
         /**
@@ -215,6 +493,27 @@ public class SRUClientConfig {
         }
 
 
+        /**
+         * Set the default HTTP request method to be used. The request method
+         * can be overridden for individual requests, see
+         * {@link SRUAbstractRequest#setRequestMethod(SRURequestMethod)}.
+         *
+         * @param defaultRequestMethod
+         *            the default request method to be used
+         * @return this {@link Builder} instance
+         * @throws NullPointerException
+         *             if a mandatory argument is <code>null</code>
+         */
+        public Builder setDefaultRequestMethod(
+                SRURequestMethod defaultRequestMethod) {
+            if (defaultRequestMethod == null) {
+                throw new NullPointerException("defaultRequestMethod == null");
+            }
+            this.defaultRequestMethod = defaultRequestMethod;
+            return this;
+        }
+
+
         /**
          * Set the timeout in milliseconds until a connection is established.
          * <p>
@@ -256,6 +555,168 @@ public class SRUClientConfig {
         }
 
 
+        /**
+         * Set the default request timeout in milliseconds, which is a hard
+         * deadline for the whole request, i.e. establishing the connection,
+         * receiving and parsing the response. Unlike the socket timeout, the
+         * request timeout is not reset when data is received, thus it also
+         * bounds the time spend on endpoints, that send their response very
+         * slowly. Requests may override this value.
+         * <p>
+         * A timeout value of <code>0</code> is interpreted as no timeout.
+         * </p>
+         *
+         * @param requestTimeout
+         *            the request timeout in milliseconds
+         * @return this {@link Builder} instance
+         * @see SRUAbstractRequest#setRequestTimeout(int)
+         */
+        public Builder setRequestTimeout(int requestTimeout) {
+            if (requestTimeout < 0) {
+                throw new IllegalArgumentException("requestTimeout < 0");
+            }
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+
+        /**
+         * Enable or disable content compression. If enabled, the client asks
+         * endpoints for a <code>gzip</code> or <code>deflate</code> compressed
+         * response, which is decompressed while it is parsed. This setting is
+         * ignored if a customized HTTP client is provided.
+         *
+         * @param contentCompression
+         *            <code>true</code> to enable content compression,
+         *            <code>false</code> to disable it
+         * @return this {@link Builder} instance
+         * @see SRUAbstractResponse#getTotalBytesDecoded()
+         */
+        public Builder setContentCompressionEnabled(
+                boolean contentCompression) {
+            this.contentCompression = contentCompression;
+            return this;
+        }
+
+
+        /**
+         * Set the maximum time in milliseconds a connection is kept open for
+         * reuse by subsequent requests to the same endpoint. Reusing
+         * connections saves the TCP and TLS handshakes, if many requests are
+         * sent to the same host. If the endpoint announces a shorter
+         * keep-alive, the shorter value is used. This setting is ignored if a
+         * customized HTTP client is provided.
+         * <p>
+         * A value of <code>0</code> disables connection reuse, i.e. a new
+         * connection is established for every request.
+         * </p>
+         *
+         * @param connectionKeepAlive
+         *            the connection keep-alive in milliseconds
+         * @return this {@link Builder} instance
+         */
+        public Builder setConnectionKeepAlive(int connectionKeepAlive) {
+            if (connectionKeepAlive < 0) {
+                throw new IllegalArgumentException("connectionKeepAlive < 0");
+            }
+            this.connectionKeepAlive = connectionKeepAlive;
+            return this;
+        }
+
+
+        /**
+         * Set a policy for adaptive per-endpoint timeouts. If set, the
+         * {@link SRUThreadedClient} derives the connect and socket timeout for
+         * each endpoint from its observed latency distribution. The connect
+         * and socket timeout of this configuration are used until enough
+         * latency samples are available.
+         *
+         * @param adaptiveTimeoutPolicy
+         *            the adaptive timeout policy or <code>null</code> to
+         *            disable adaptive timeouts
+         * @return this {@link Builder} instance
+         * @see SRUAdaptiveTimeoutPolicy
+         */
+        public Builder setAdaptiveTimeoutPolicy(
+                SRUAdaptiveTimeoutPolicy adaptiveTimeoutPolicy) {
+            this.adaptiveTimeoutPolicy = adaptiveTimeoutPolicy;
+            return this;
+        }
+
+
+        /**
+         * Set a policy for hedging requests. If set, the
+         * {@link SRUThreadedClient} sends a duplicate <em>explain</em> or
+         * <em>searchRetrieve</em> request, if a request has not completed
+         * within a percentile of the recent latencies of its endpoint, and
+         * uses the first successful response.
+         *
+         * @param hedgingPolicy
+         *            the hedging policy or <code>null</code> to disable
+         *            hedging
+         * @return this {@link Builder} instance
+         * @see SRUHedgingPolicy
+         */
+        public Builder setHedgingPolicy(SRUHedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+
+        /**
+         * Set a policy for retrying requests after transient transport
+         * errors. The retry budget of the policy is shared by all clients
+         * created with this configuration.
+         *
+         * @param retryPolicy
+         *            the retry policy or <code>null</code> to disable retries
+         * @return this {@link Builder} instance
+         * @see SRURetryPolicy
+         */
+        public Builder setRetryPolicy(SRURetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+
+        /**
+         * Set a policy for per-endpoint circuit breakers. If set, the
+         * {@link SRUThreadedClient} fails requests to an endpoint, that is
+         * known to be down, immediately.
+         *
+         * @param circuitBreakerPolicy
+         *            the circuit breaker policy or <code>null</code> to
+         *            disable circuit breakers
+         * @return this {@link Builder} instance
+         * @see SRUCircuitBreakerPolicy
+         */
+        public Builder setCircuitBreakerPolicy(
+                SRUCircuitBreakerPolicy circuitBreakerPolicy) {
+            this.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+
+
+        /**
+         * Set the transport which is to be used for performing requests. If
+         * a transport is set, it takes precedence over a customized HTTP
+         * client and the connection related settings of this configuration
+         * are not applied by the client. The transport is shared by all
+         * client instances created from this configuration and therefore
+         * must be thread-safe.
+         *
+         * @param transport
+         *            a transport instance or <code>null</code> to use the
+         *            default transport based on Apache HttpClient
+         * @return this {@link Builder} instance
+         * @see SRUTransport
+         */
+        public Builder setTransport(SRUTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+
         /**
          * Set a customized HTTP client which is to be used.
          *
@@ -290,6 +751,145 @@ public class SRUClientConfig {
         }
 
 
+        /**
+         * Set the cache for <em>explain</em> responses. Cached responses are
+         * revalidated with conditional requests and reused, if the endpoint
+         * reports that they have not been modified. The cache is shared by
+         * all client instances created from this configuration.
+         *
+         * @param explainCache
+         *            the explain cache or <code>null</code> to disable caching
+         * @return this {@link Builder} instance
+         * @see SRUExplainCache
+         */
+        public Builder setExplainCache(SRUExplainCache explainCache) {
+            this.explainCache = explainCache;
+            return this;
+        }
+
+
+        /**
+         * Set the cache for <em>scan</em> and <em>searchRetrieve</em>
+         * responses. Identical requests are answered from the cache, until
+         * the cached response expires or is evicted. The cache is shared by
+         * all client instances created from this configuration.
+         *
+         * @param responseCache
+         *            the response cache or <code>null</code> to disable
+         *            caching
+         * @return this {@link Builder} instance
+         * @see SRUResponseCache
+         */
+        public Builder setResponseCache(SRUResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+
+        /**
+         * Set the persistent cache for raw responses. Responses are recorded
+         * as they are received from the transport, and requests for cached
+         * responses are answered from disk without contacting the endpoint.
+         * The cache is shared by all client instances created from this
+         * configuration, but it is not closed by them.
+         *
+         * @param diskCache
+         *            the disk cache or <code>null</code> to disable caching
+         * @return this {@link Builder} instance
+         * @see SRUDiskCache
+         */
+        public Builder setDiskCache(SRUDiskCache diskCache) {
+            this.diskCache = diskCache;
+            return this;
+        }
+
+
+        /**
+         * Enable or disable request coalescing. If enabled, a request, that is
+         * identical to a request currently in progress, does not start a new
+         * HTTP exchange, but waits for the request in progress and receives
+         * the same response object (or the same error). Requests are identical,
+         * if they have the same normalized parameters, endpoint and
+         * authentication context. This value is only relevant for the
+         * {@link SRUThreadedClient}.
+         *
+         * @param requestCoalescing
+         *            <code>true</code> to enable request coalescing,
+         *            <code>false</code> to disable it
+         * @return this {@link Builder} instance
+         */
+        public Builder setRequestCoalescingEnabled(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+
+        /**
+         * Enable or disable byte statistics. If enabled (the default), the
+         * number of bytes transferred and the number of bytes of the decoded
+         * response are counted for each request. If disabled, the response
+         * body is passed to the parser without counting and the number of
+         * bytes is reported as <code>-1</code>.
+         *
+         * @param byteStatistics
+         *            <code>true</code> to enable byte statistics,
+         *            <code>false</code> to disable them
+         * @return this {@link Builder} instance
+         */
+        public Builder setByteStatisticsEnabled(boolean byteStatistics) {
+            this.byteStatistics = byteStatistics;
+            return this;
+        }
+
+
+        /**
+         * Set the settings for the XML parser, e.g.
+         * {@link SRUParserSettings#forLargeRecords()}. By default,
+         * {@link SRUParserSettings#DEFAULT} is used.
+         *
+         * @param parserSettings
+         *            the parser settings
+         * @return this {@link Builder} instance
+         * @throws NullPointerException
+         *             if any required argument is <code>null</code>
+         * @see SRUParserSettings
+         */
+        public Builder setParserSettings(SRUParserSettings parserSettings) {
+            if (parserSettings == null) {
+                throw new NullPointerException("parserSettings == null");
+            }
+            this.parserSettings = parserSettings;
+            return this;
+        }
+
+
+        /**
+         * Set a pool for parsing record data in parallel, e.g.
+         * {@link ForkJoinPool#commonPool()}. If set, the record data of
+         * <em>searchRetrieve</em> responses is captured into a buffer while
+         * reading the response and parsed by the record data parsers in this
+         * pool, while the response handler still receives the records in
+         * document order. This is useful for responses with many large
+         * records. By default, or if set to <code>null</code>, the record data
+         * is parsed sequentially.
+         * <p>
+         * <em>NB: all registered record data parsers must be thread-safe, if a
+         * pool is used.</em> Records with string escaping are parsed
+         * sequentially. Before the <em>extraRecordData</em> of a record is
+         * passed to the response handler, all preceding records need to be
+         * parsed, so extra record data reduces the parallelism.
+         * </p>
+         *
+         * @param recordParsingPool
+         *            the pool for parsing record data or <code>null</code>
+         * @return this {@link Builder} instance
+         */
+        public Builder setRecordParsingPool(ForkJoinPool recordParsingPool) {
+            this.recordParsingPool = recordParsingPool;
+            return this;
+        }
+
+
         /**
          * Set the number of worker threads. This value is only relevant for the
          * {@link SRUThreadedClient}.
@@ -366,6 +966,26 @@ public class SRUClientConfig {
         }
 
 
+        /**
+         * Add an event listener instance to the list of event listeners.
+         *
+         * @param listener
+         *            the event listener to be added
+         * @return this {@link Builder} instance
+         * @see SRUClientEventListener
+         */
+        public Builder addEventListener(SRUClientEventListener listener) {
+            if (listener == null) {
+                throw new NullPointerException("listener == null");
+            }
+            if (eventListeners == null) {
+                eventListeners = new ArrayList<>();
+            }
+            eventListeners.add(listener);
+            return this;
+        }
+
+
         /**
          * Create a configuration instance object for configuring SRU clients
          *
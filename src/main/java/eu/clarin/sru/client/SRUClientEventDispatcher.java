@@ -0,0 +1,193 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/*
+ * Forwards events to all registered listeners and makes sure a misbehaving
+ * listener cannot break request processing.
+ */
+final class SRUClientEventDispatcher implements SRUClientEventListener {
+    private static final Logger logger =
+            LoggerFactory.getLogger(SRUClientEventDispatcher.class);
+    private final SRUClientEventListener[] listeners;
+
+
+    SRUClientEventDispatcher(List<SRUClientEventListener> listeners) {
+        if (listeners == null) {
+            throw new NullPointerException("listeners == null");
+        }
+        this.listeners = listeners.toArray(
+                new SRUClientEventListener[listeners.size()]);
+    }
+
+
+    @Override
+    public void onRequestStart(SRUAbstractRequest request) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRequestStart(request);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onRequestURI(SRUAbstractRequest request, URI uri) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRequestURI(request, uri);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onConnectionAcquired(SRUAbstractRequest request) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onConnectionAcquired(request);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onResponseHeaders(SRUAbstractRequest request, int statusCode,
+            Map<String, String> headers) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onResponseHeaders(request, statusCode, headers);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onParseStart(SRUAbstractRequest request) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onParseStart(request);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onRecordParsed(SRUAbstractRequest request, String identifier,
+            int position) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRecordParsed(request, identifier, position);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onParseEnd(SRUAbstractRequest request) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onParseEnd(request);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onRequestComplete(SRUAbstractRequest request,
+            long totalBytesTransferred, long totalBytesDecoded,
+            long millisTotal, long millisNetwork, long millisProcessing) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRequestComplete(request, totalBytesTransferred,
+                        totalBytesDecoded, millisTotal, millisNetwork,
+                        millisProcessing);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onRequestRetry(SRUAbstractRequest request, int retry,
+            long delay, SRUTransportException error) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRequestRetry(request, retry, delay, error);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onCircuitStateChanged(URI baseURI, SRUCircuitState previous,
+            SRUCircuitState state) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onCircuitStateChanged(baseURI, previous, state);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    @Override
+    public void onRequestFailed(SRUAbstractRequest request,
+            SRUClientException error) {
+        for (SRUClientEventListener listener : listeners) {
+            try {
+                listener.onRequestFailed(request, error);
+            } catch (RuntimeException e) {
+                logError(listener, e);
+            }
+        }
+    }
+
+
+    private static void logError(SRUClientEventListener listener,
+            RuntimeException e) {
+        logger.error("event listener '{}' raised an exception (ignored)",
+                listener.getClass().getName(), e);
+    }
+
+} // class SRUClientEventDispatcher
@@ -0,0 +1,193 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Map;
+
+
+/**
+ * Receive notifications about the phases of an SRU request/response exchange,
+ * e.g. for tracing or collecting latency metrics.
+ * <p>
+ * Listeners are registered with {@link SRUClientConfig.Builder} and are invoked
+ * synchronously by the thread that performs the request, i.e. all events for a
+ * single exchange are delivered by the same thread in the order listed below.
+ * Listeners shared by a {@link SRUThreadedClient} need to be thread-safe.
+ * </p>
+ * <p>
+ * Listeners should return quickly and must not throw exceptions. Runtime
+ * exceptions raised by a listener are logged and otherwise ignored.
+ * </p>
+ *
+ * @see SRUClientEventListenerAdapter
+ * @see SRUClientConfig.Builder#addEventListener(SRUClientEventListener)
+ */
+public interface SRUClientEventListener {
+
+    /**
+     * Receive notification that the client started to process a request.
+     *
+     * @param request
+     *            the request
+     */
+    public void onRequestStart(SRUAbstractRequest request);
+
+
+    /**
+     * Receive notification that the request URI has been built.
+     *
+     * @param request
+     *            the request
+     * @param uri
+     *            the URI that will be used to perform the request
+     */
+    public void onRequestURI(SRUAbstractRequest request, URI uri);
+
+
+    /**
+     * Receive notification that a connection to the endpoint has been
+     * acquired and the HTTP request is about to be sent.
+     * <p>
+     * NB: this event is only available, if the client is not configured to use
+     * a customized HTTP client.
+     * </p>
+     *
+     * @param request
+     *            the request
+     */
+    public void onConnectionAcquired(SRUAbstractRequest request);
+
+
+    /**
+     * Receive notification that the status line and the headers of the HTTP
+     * response have been received.
+     *
+     * @param request
+     *            the request
+     * @param statusCode
+     *            the HTTP status code
+     * @param headers
+     *            the HTTP response headers
+     */
+    public void onResponseHeaders(SRUAbstractRequest request, int statusCode,
+            Map<String, String> headers);
+
+
+    /**
+     * Receive notification that the client started to parse the response.
+     *
+     * @param request
+     *            the request
+     */
+    public void onParseStart(SRUAbstractRequest request);
+
+
+    /**
+     * Receive notification that a record has been parsed.
+     *
+     * @param request
+     *            the request
+     * @param identifier
+     *            identifier of the record or <code>null</code> if not available
+     * @param position
+     *            position of the record in the result set or <code>-1</code> if
+     *            not available
+     */
+    public void onRecordParsed(SRUAbstractRequest request, String identifier,
+            int position);
+
+
+    /**
+     * Receive notification that the client finished parsing the response.
+     *
+     * @param request
+     *            the request
+     */
+    public void onParseEnd(SRUAbstractRequest request);
+
+
+    /**
+     * Receive notification that the request has been completed successfully.
+     *
+     * @param request
+     *            the request
+     * @param totalBytesTransferred
+     *            the total number of bytes transferred while receiving the
+     *            response
+     * @param totalBytesDecoded
+     *            the total number of bytes of the decoded response, i.e. after
+     *            decompression
+     * @param millisTotal
+     *            the total time spend processing the request
+     * @param millisNetwork
+     *            the time spend performing network operations
+     * @param millisProcessing
+     *            the time spend processing the response
+     */
+    public void onRequestComplete(SRUAbstractRequest request,
+            long totalBytesTransferred, long totalBytesDecoded,
+            long millisTotal, long millisNetwork, long millisProcessing);
+
+
+    /**
+     * Receive notification that the HTTP exchange failed with a transient
+     * error and will be retried.
+     *
+     * @param request
+     *            the request
+     * @param retry
+     *            the number of the retry, starting with <code>1</code>
+     * @param delay
+     *            the delay before the retry in milliseconds
+     * @param error
+     *            the error that caused the retry
+     * @see SRURetryPolicy
+     */
+    public void onRequestRetry(SRUAbstractRequest request, int retry,
+            long delay, SRUTransportException error);
+
+
+    /**
+     * Receive notification that the state of the circuit breaker of an
+     * endpoint changed. This event is only sent by the
+     * {@link SRUThreadedClient} and is not associated with a request.
+     *
+     * @param baseURI
+     *            the baseURI of the endpoint
+     * @param previous
+     *            the previous state of the circuit breaker
+     * @param state
+     *            the new state of the circuit breaker
+     * @see SRUCircuitBreakerPolicy
+     */
+    public void onCircuitStateChanged(URI baseURI, SRUCircuitState previous,
+            SRUCircuitState state);
+
+
+    /**
+     * Receive notification that the request has failed.
+     *
+     * @param request
+     *            the request
+     * @param error
+     *            the error
+     */
+    public void onRequestFailed(SRUAbstractRequest request,
+            SRUClientException error);
+
+} // interface SRUClientEventListener
@@ -0,0 +1,97 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Map;
+
+
+/**
+ * Default base class for SRU client event listeners.
+ * <p>
+ * This class is available as a convenience base class for SRU client
+ * applications: it provides empty default implementations for all of the
+ * callbacks in {@link SRUClientEventListener}. Application writers can extend
+ * this class when they are only interested in some of the events.
+ * </p>
+ *
+ * @see SRUClientEventListener
+ */
+public class SRUClientEventListenerAdapter implements SRUClientEventListener {
+
+    @Override
+    public void onRequestStart(SRUAbstractRequest request) {
+    }
+
+
+    @Override
+    public void onRequestURI(SRUAbstractRequest request, URI uri) {
+    }
+
+
+    @Override
+    public void onConnectionAcquired(SRUAbstractRequest request) {
+    }
+
+
+    @Override
+    public void onResponseHeaders(SRUAbstractRequest request, int statusCode,
+            Map<String, String> headers) {
+    }
+
+
+    @Override
+    public void onParseStart(SRUAbstractRequest request) {
+    }
+
+
+    @Override
+    public void onRecordParsed(SRUAbstractRequest request, String identifier,
+            int position) {
+    }
+
+
+    @Override
+    public void onParseEnd(SRUAbstractRequest request) {
+    }
+
+
+    @Override
+    public void onRequestComplete(SRUAbstractRequest request,
+            long totalBytesTransferred, long totalBytesDecoded,
+            long millisTotal, long millisNetwork, long millisProcessing) {
+    }
+
+
+    @Override
+    public void onRequestRetry(SRUAbstractRequest request, int retry,
+            long delay, SRUTransportException error) {
+    }
+
+
+    @Override
+    public void onCircuitStateChanged(URI baseURI, SRUCircuitState previous,
+            SRUCircuitState state) {
+    }
+
+
+    @Override
+    public void onRequestFailed(SRUAbstractRequest request,
+            SRUClientException error) {
+    }
+
+} // class SRUClientEventListenerAdapter
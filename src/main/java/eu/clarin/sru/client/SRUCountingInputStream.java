@@ -0,0 +1,78 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/*
+ * An input stream that counts the number of bytes read from the underlying
+ * stream.
+ */
+final class SRUCountingInputStream extends FilterInputStream {
+    private long count = 0;
+
+
+    SRUCountingInputStream(InputStream stream) {
+        super(stream);
+    }
+
+
+    @Override
+    public int read() throws IOException {
+        final int value = super.read();
+        if (value != -1) {
+            count++;
+        }
+        return value;
+    }
+
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException {
+        final int result = super.read(buffer, offset, length);
+        if (result >= 0) {
+            count += result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        return this.read(buffer, 0, buffer.length);
+    }
+
+
+    @Override
+    public long skip(long n) throws IOException {
+        final long result = super.skip(n);
+        if (result > 0) {
+            count += result;
+        }
+        return result;
+    }
+
+
+    long getCount() {
+        return count;
+    }
+
+} // class SRUCountingInputStream
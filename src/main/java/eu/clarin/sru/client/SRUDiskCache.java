@@ -0,0 +1,663 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A persistent cache for raw SRU responses.
+ * <p>
+ * Successful responses are stored as they were received from the endpoint,
+ * i.e. before decompression and parsing, in append-only segment files in a
+ * directory. The cache is keyed on the request URI and, for POST requests, the
+ * request body. Cached responses are read through memory mapped segment files
+ * and parsed directly from the mapped region, without copying them to the
+ * heap first. When the cache is created, the existing segment files are
+ * scanned, so cached responses survive restarts of the application.
+ * </p>
+ * <p>
+ * When the total size of the segment files exceeds the configured maximum
+ * size, the oldest segment file is deleted. Cached responses expire after the
+ * configured time-to-live. Requests, that carry an authentication header, are
+ * never cached.
+ * </p>
+ * <p>
+ * The cache is thread-safe and may be shared by several clients, but a
+ * directory must not be used by more than one cache instance at a time.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setDiskCache(SRUDiskCache)
+ */
+public final class SRUDiskCache implements Closeable {
+    /**
+     * default maximum size of all segment files in bytes, if not otherwise
+     * specified
+     */
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+    /** default time-to-live in milliseconds, if not otherwise specified */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.DAYS.toMillis(1);
+    /** maximum size of a single segment file */
+    public static final long MAX_SEGMENT_SIZE = 64L * 1024L * 1024L;
+    private static final Logger logger =
+            LoggerFactory.getLogger(SRUDiskCache.class);
+    private static final String SEGMENT_PREFIX = "sru-cache-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECORD_MAGIC = 0x53525543; /* "SRUC" */
+    private final File directory;
+    private final long maxSize;
+    private final long timeToLive;
+    private final long segmentSize;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private long nextSegmentId;
+    private long hitCount;
+    private long missCount;
+    private boolean closed;
+
+
+    /**
+     * Constructor.
+     *
+     * @param directory
+     *            the directory for the segment files, which is created if it
+     *            does not exist
+     * @param maxSize
+     *            the maximum size of all segment files in bytes
+     * @param timeToLive
+     *            the time-to-live of cached responses in milliseconds
+     * @throws IOException
+     *             if the directory cannot be created or the existing segment
+     *             files cannot be read
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUDiskCache(File directory, long maxSize, long timeToLive)
+            throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("directory == null");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize < 1");
+        }
+        if (timeToLive < 1) {
+            throw new IllegalArgumentException("timeToLive < 1");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory: " + directory);
+        }
+        this.directory   = directory;
+        this.maxSize     = maxSize;
+        this.timeToLive  = timeToLive;
+        this.segmentSize = Math.max(1, Math.min(MAX_SEGMENT_SIZE,
+                maxSize / 8));
+        load();
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_MAX_SIZE} and
+     * {@link #DEFAULT_TIME_TO_LIVE}.
+     *
+     * @param directory
+     *            the directory for the segment files, which is created if it
+     *            does not exist
+     * @throws IOException
+     *             if the directory cannot be created or the existing segment
+     *             files cannot be read
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     */
+    public SRUDiskCache(File directory) throws IOException {
+        this(directory, DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+
+    /**
+     * Get the directory of the segment files.
+     *
+     * @return the directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+
+    /**
+     * Get the maximum size of all segment files.
+     *
+     * @return the maximum size in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+
+    /**
+     * Get the time-to-live of cached responses.
+     *
+     * @return the time-to-live in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+
+    /**
+     * Get the number of cached responses.
+     *
+     * @return the number of cached responses
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+
+    /**
+     * Get the total size of all segment files.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getDiskSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+
+    /**
+     * Get the number of requests, that have been answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+
+    /**
+     * Get the number of requests, that could not be answered from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+
+    /**
+     * Remove all cached responses and delete the segment files.
+     *
+     * @throws IOException
+     *             if a segment file cannot be deleted
+     */
+    public synchronized void clear() throws IOException {
+        index.clear();
+        while (!segments.isEmpty()) {
+            segments.removeFirst().delete();
+        }
+    }
+
+
+    /**
+     * Close the cache and release the segment files. Cached responses are
+     * kept on disk and are available again, when a new cache is created for
+     * the directory.
+     *
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            index.clear();
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+        }
+    }
+
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName());
+        sb.append("[directory=").append(directory);
+        sb.append(", entries=").append(index.size());
+        sb.append(", segments=").append(segments.size());
+        sb.append(", size=").append(getDiskSize());
+        sb.append(", hits=").append(hitCount);
+        sb.append(", misses=").append(missCount);
+        sb.append("]");
+        return sb.toString();
+    }
+
+
+    /*
+     * Look up a cached response. The body of the returned response is a view
+     * of the mapped segment file.
+     */
+    synchronized SRUTransportResponse get(String key) throws IOException {
+        final Location location = closed ? null : index.get(key);
+        if (location != null) {
+            if ((System.currentTimeMillis() - location.timestamp) <
+                    timeToLive) {
+                hitCount++;
+                return new Response(location.headers,
+                        location.segment.slice(location.offset,
+                                location.length));
+            }
+            index.remove(key);
+        }
+        missCount++;
+        return null;
+    }
+
+
+    /*
+     * Append a response to the current segment file.
+     */
+    synchronized void put(String key, Map<String, String> headers,
+            byte[] body, int length) throws IOException {
+        if (closed) {
+            return;
+        }
+        final long timestamp = System.currentTimeMillis();
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[][] headerBytes = new byte[headers.size() * 2][];
+        int headerSize = 0;
+        int i = 0;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            headerBytes[i] = header.getKey().getBytes(StandardCharsets.UTF_8);
+            headerBytes[i + 1] =
+                    header.getValue().getBytes(StandardCharsets.UTF_8);
+            headerSize += 8 + headerBytes[i].length + headerBytes[i + 1].length;
+            i += 2;
+        }
+
+        /* magic, timestamp, key, headers, body length */
+        final ByteBuffer record = ByteBuffer.allocate(4 + 8 + 4 +
+                keyBytes.length + 4 + headerSize + 4);
+        record.putInt(RECORD_MAGIC);
+        record.putLong(timestamp);
+        record.putInt(keyBytes.length);
+        record.put(keyBytes);
+        record.putInt(headers.size());
+        for (byte[] b : headerBytes) {
+            record.putInt(b.length);
+            record.put(b);
+        }
+        record.putInt(length);
+        record.flip();
+
+        Segment segment = segments.peekLast();
+        if ((segment == null) || segment.sealed ||
+                (segment.size >= segmentSize)) {
+            segment = new Segment(directory, nextSegmentId++, true);
+            segments.addLast(segment);
+        }
+        final long offset = segment.append(record,
+                ByteBuffer.wrap(body, 0, length));
+        index.put(key, new Location(segment, timestamp,
+                Collections.unmodifiableMap(new LinkedHashMap<>(headers)),
+                offset, length));
+        logger.debug("cached {} byte(s) for {} in segment {}",
+                length, key, segment.file.getName());
+        evict();
+    }
+
+
+    private void evict() throws IOException {
+        long size = getDiskSize();
+        while ((size > maxSize) && (segments.size() > 1)) {
+            final Segment oldest = segments.removeFirst();
+            size -= oldest.size;
+            final Iterator<Location> i = index.values().iterator();
+            while (i.hasNext()) {
+                if (i.next().segment == oldest) {
+                    i.remove();
+                }
+            }
+            logger.debug("evicting segment {}", oldest.file.getName());
+            oldest.delete();
+        }
+    }
+
+
+    private void load() throws IOException {
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                final String name = file.getName();
+                return file.isFile() && name.startsWith(SEGMENT_PREFIX) &&
+                        name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (files == null) {
+            throw new IOException("cannot list directory: " + directory);
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            final String name = file.getName();
+            final long id;
+            try {
+                id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                logger.debug("ignoring file {}", file);
+                continue;
+            }
+            final Segment segment = new Segment(directory, id, false);
+            segments.addLast(segment);
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            scan(segment);
+        }
+        logger.debug("loaded {} cached response(s) from {} segment(s) in {}",
+                index.size(), segments.size(), directory);
+        evict();
+    }
+
+
+    private void scan(Segment segment) throws IOException {
+        if (segment.size == 0) {
+            return;
+        }
+        final ByteBuffer buffer = segment.slice(0, segment.size);
+        int count = 0;
+        int lastGood = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                final int start = buffer.position();
+                if (buffer.getInt() != RECORD_MAGIC) {
+                    throw new IOException("bad record at offset " + start);
+                }
+                final long timestamp = buffer.getLong();
+                final String key = readString(buffer);
+                final int headerCount = buffer.getInt();
+                final Map<String, String> headers = new LinkedHashMap<>();
+                for (int i = 0; i < headerCount; i++) {
+                    final String name = readString(buffer);
+                    headers.put(name, readString(buffer));
+                }
+                final int length = buffer.getInt();
+                final int offset = buffer.position();
+                if ((length < 0) || (length > buffer.remaining())) {
+                    throw new IOException("truncated record at offset " +
+                            start);
+                }
+                buffer.position(offset + length);
+                index.put(key, new Location(segment, timestamp,
+                        Collections.unmodifiableMap(headers), offset, length));
+                count++;
+                lastGood = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warn("segment {} is truncated, ignoring rest of file",
+                    segment.file.getName());
+            segment.discardTail(lastGood);
+        } catch (IOException e) {
+            logger.warn("segment {} is corrupt ({}), ignoring rest of file",
+                    segment.file.getName(), e.getMessage());
+            segment.discardTail(lastGood);
+        }
+        logger.debug("segment {}: {} record(s)", segment.file.getName(),
+                count);
+    }
+
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if ((length < 0) || (length > buffer.remaining())) {
+            throw new IOException("invalid string length");
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /*
+     * An append-only segment file. Reads go through a memory mapping of the
+     * file, which is re-created when the data to read has been appended after
+     * the file was mapped.
+     */
+    private static final class Segment {
+        private final File file;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private long size;
+        private MappedByteBuffer mapped;
+        /* no more records may be appended */
+        private boolean sealed = false;
+
+
+        private Segment(File directory, long id, boolean create)
+                throws IOException {
+            this.file = new File(directory, String.format("%s%08d%s",
+                    SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+            if (create && file.exists()) {
+                throw new IOException("segment already exists: " + file);
+            }
+            this.raf     = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            this.size    = channel.size();
+        }
+
+
+        private long append(ByteBuffer record, ByteBuffer body)
+                throws IOException {
+            long position = size;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            final long offset = position;
+            while (body.hasRemaining()) {
+                position += channel.write(body, position);
+            }
+            size = position;
+            return offset;
+        }
+
+
+        private ByteBuffer slice(long offset, long length) throws IOException {
+            if ((mapped == null) || (mapped.capacity() < (offset + length))) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            final ByteBuffer buffer = mapped.duplicate();
+            buffer.position((int) offset);
+            buffer.limit((int) (offset + length));
+            return buffer.slice();
+        }
+
+
+        /*
+         * Remove a damaged tail after the last good record, so records
+         * appended later are not lost behind it on the next scan. If the file
+         * cannot be truncated (e.g. because it is still mapped on some
+         * platforms), the segment is sealed and new records go to a new
+         * segment.
+         */
+        private void discardTail(long offset) {
+            try {
+                mapped = null;
+                channel.truncate(offset);
+                size = offset;
+            } catch (IOException e) {
+                logger.warn("cannot truncate segment {} ({}), sealing it",
+                        file.getName(), e.getMessage());
+                sealed = true;
+            }
+        }
+
+
+        private void close() throws IOException {
+            mapped = null;
+            raf.close();
+        }
+
+
+        private void delete() throws IOException {
+            close();
+            if (!file.delete()) {
+                throw new IOException("cannot delete segment: " + file);
+            }
+        }
+    } // class Segment
+
+
+    private static final class Location {
+        private final Segment segment;
+        private final long timestamp;
+        private final Map<String, String> headers;
+        private final long offset;
+        private final int length;
+
+
+        private Location(Segment segment, long timestamp,
+                Map<String, String> headers, long offset, int length) {
+            this.segment   = segment;
+            this.timestamp = timestamp;
+            this.headers   = headers;
+            this.offset    = offset;
+            this.length    = length;
+        }
+    } // class Location
+
+
+    /*
+     * A cached response, which reads its body from a mapped segment file.
+     */
+    private static final class Response
+            implements SRUCachedTransportResponse {
+        private final Map<String, String> headers;
+        private final ByteBuffer body;
+
+
+        private Response(Map<String, String> headers, ByteBuffer body) {
+            this.headers = headers;
+            this.body    = body;
+        }
+
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+
+        @Override
+        public String getHeader(String name) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+
+        @Override
+        public InputStream getBody() {
+            return new ByteBufferInputStream(body);
+        }
+
+
+        @Override
+        public void close() {
+        }
+    } // class Response
+
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+
+        @Override
+        public long skip(long n) {
+            final int skipped = (int) Math.max(0,
+                    Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    } // class ByteBufferInputStream
+
+} // class SRUDiskCache
@@ -0,0 +1,270 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/*
+ * A transport, that answers requests from a disk cache and records the
+ * responses of another transport into it. Responses are recorded while they
+ * are read by the client and only stored, if the client parsed them
+ * successfully and they do not contain diagnostics; content after the end of the document (e.g. a trailing
+ * comment), that the parser did not read, is recorded at that point. Errors
+ * of the cache are logged and never fail a request.
+ */
+final class SRUDiskCacheTransport implements SRUTransport {
+    private static final Logger logger =
+            LoggerFactory.getLogger(SRUDiskCacheTransport.class);
+    private static final String HEADER_AUTHENTICATION = "Authentication";
+    private final SRUDiskCache cache;
+    private final SRUTransport transport;
+
+
+    SRUDiskCacheTransport(SRUDiskCache cache, SRUTransport transport) {
+        if (cache == null) {
+            throw new NullPointerException("cache == null");
+        }
+        if (transport == null) {
+            throw new NullPointerException("transport == null");
+        }
+        this.cache     = cache;
+        this.transport = transport;
+    }
+
+
+    @Override
+    public SRUTransportResponse execute(SRUTransportRequest request)
+            throws IOException {
+        /* responses for authenticated requests may be user specific */
+        if (request.getHeaders().containsKey(HEADER_AUTHENTICATION)) {
+            return transport.execute(request);
+        }
+
+        final String key = makeKey(request);
+        try {
+            final SRUTransportResponse cached = cache.get(key);
+            if (cached != null) {
+                logger.debug("using cached response from disk for {}", key);
+                return cached;
+            }
+        } catch (IOException e) {
+            logger.warn("error reading disk cache: {}", e.getMessage());
+        }
+
+        final SRUTransportResponse response = transport.execute(request);
+        if (response.getStatusCode() != HttpStatus.SC_OK) {
+            return response;
+        }
+        return new RecordingResponse(key, response);
+    }
+
+
+    private static String makeKey(SRUTransportRequest request) {
+        final byte[] body = request.getBody();
+        if (body != null) {
+            return request.getURI().toString() + '\n' +
+                    new String(body, StandardCharsets.US_ASCII);
+        }
+        return request.getURI().toString();
+    }
+
+
+    private final class RecordingResponse
+            implements SRUTransportResponse, SRUParseCompletionAware {
+        private final String key;
+        private final SRUTransportResponse response;
+        private final Buffer buffer = new Buffer();
+        private InputStream recording;
+        private boolean eof;
+        private boolean complete;
+
+
+        private RecordingResponse(String key, SRUTransportResponse response) {
+            this.key      = key;
+            this.response = response;
+        }
+
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+
+        @Override
+        public String getHeader(String name) {
+            return response.getHeader(name);
+        }
+
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return response.getHeaders();
+        }
+
+
+        @Override
+        public InputStream getBody() throws IOException {
+            final InputStream body = response.getBody();
+            if (body == null) {
+                return null;
+            }
+            recording = new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    final int b = super.read();
+                    if (b != -1) {
+                        record(b);
+                    } else {
+                        eof = true;
+                    }
+                    return b;
+                }
+
+
+                @Override
+                public int read(byte[] b, int off, int len)
+                        throws IOException {
+                    final int n = super.read(b, off, len);
+                    if (n > 0) {
+                        record(b, off, n);
+                    } else if (n == -1) {
+                        eof = true;
+                    }
+                    return n;
+                }
+
+
+                @Override
+                public long skip(long n) throws IOException {
+                    /* skipped bytes must be recorded, too */
+                    final byte[] b = new byte[(int) Math.min(n, 8192)];
+                    final int r = (n > 0) ? read(b, 0, b.length) : 0;
+                    return Math.max(0, r);
+                }
+
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+            };
+            return recording;
+        }
+
+
+        @Override
+        public void onParseComplete(boolean diagnostics)
+                throws IOException {
+            /* do not replay errors reported as diagnostics from the cache */
+            if ((recording == null) || diagnostics) {
+                return;
+            }
+            /* record what the parser left unread, unless it is too large */
+            final byte[] b = new byte[8192];
+            while (!eof && !buffer.isDiscarded()) {
+                recording.read(b, 0, b.length);
+            }
+            complete = eof;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            try {
+                response.close();
+            } finally {
+                if (complete && !buffer.isDiscarded() &&
+                        (buffer.size() > 0)) {
+                    try {
+                        cache.put(key, response.getHeaders(),
+                                buffer.array(), buffer.size());
+                    } catch (IOException e) {
+                        logger.warn("error writing disk cache: {}",
+                                e.getMessage());
+                    }
+                }
+            }
+        }
+
+
+        private void record(int b) {
+            if (buffer.isDiscarded()) {
+                return;
+            }
+            if (buffer.size() < SRUDiskCache.MAX_SEGMENT_SIZE) {
+                buffer.write(b);
+            } else {
+                buffer.discard();
+            }
+        }
+
+
+        private void record(byte[] b, int off, int len) {
+            if (buffer.isDiscarded()) {
+                return;
+            }
+            if ((buffer.size() + len) <= SRUDiskCache.MAX_SEGMENT_SIZE) {
+                buffer.write(b, off, len);
+            } else {
+                buffer.discard();
+            }
+        }
+    } // class RecordingResponse
+
+
+    /*
+     * A buffer, that gives access to its backing array to avoid a copy and
+     * that discards its content, if the response is too large to be cached.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        private boolean discarded;
+
+
+        private Buffer() {
+            super(8192);
+        }
+
+
+        private byte[] array() {
+            return buf;
+        }
+
+
+        private boolean isDiscarded() {
+            return discarded;
+        }
+
+
+        private void discard() {
+            discarded = true;
+            buf = new byte[0];
+            count = 0;
+        }
+    } // class Buffer
+
+} // class SRUDiskCacheTransport
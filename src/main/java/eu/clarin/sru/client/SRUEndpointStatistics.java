@@ -0,0 +1,340 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Arrays;
+
+
+/**
+ * Rolling latency and health statistics for a single endpoint. Latency, error
+ * rate, timeout rate and bytes per record are tracked as exponentially
+ * weighted moving averages (EWMA), so recent requests have more influence than
+ * older ones.
+ * <p>
+ * Instances are maintained by the {@link SRUThreadedClient} and are updated
+ * concurrently by its worker threads. This class is thread-safe.
+ * </p>
+ *
+ * @see SRUThreadedClient#getEndpointStatistics(URI)
+ */
+public final class SRUEndpointStatistics {
+    /** the smoothing factor for the moving averages */
+    private static final double ALPHA = 0.2;
+    /** the number of latency samples kept for computing percentiles */
+    private static final int SAMPLE_SIZE = 256;
+    private final URI baseURI;
+    private final SRUCircuitBreaker circuitBreaker;
+    private long requestCount;
+    private long errorCount;
+    private long timeoutCount;
+    private long rejectedCount;
+    private int inFlightCount;
+    private double latency = -1;
+    private double errorRate;
+    private double timeoutRate;
+    private double bytesPerRecord = -1;
+    private long lastSuccessTime = -1;
+    private long lastFailureTime = -1;
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int sampleCount = 0;
+    private int sampleIndex = 0;
+
+
+    SRUEndpointStatistics(URI baseURI, SRUCircuitBreaker circuitBreaker) {
+        if (baseURI == null) {
+            throw new NullPointerException("baseURI == null");
+        }
+        this.baseURI        = baseURI;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+
+    /**
+     * Get the baseURI of the endpoint.
+     *
+     * @return the baseURI of the endpoint
+     */
+    public URI getBaseURI() {
+        return baseURI;
+    }
+
+
+    /**
+     * Get the number of completed requests, i.e. successful and failed
+     * requests.
+     *
+     * @return the number of completed requests
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+
+    /**
+     * Get the number of failed requests.
+     *
+     * @return the number of failed requests
+     */
+    public synchronized long getErrorCount() {
+        return errorCount;
+    }
+
+
+    /**
+     * Get the number of requests that failed due to a timeout.
+     *
+     * @return the number of timed out requests
+     */
+    public synchronized long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+
+    /**
+     * Get the number of requests that failed immediately, because the circuit
+     * breaker of the endpoint was open. These requests are not included in
+     * the number of completed requests.
+     *
+     * @return the number of rejected requests
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+
+    /**
+     * Get the state of the circuit breaker of the endpoint.
+     *
+     * @return the state of the circuit breaker; always
+     *         {@link SRUCircuitState#CLOSED}, if circuit breakers are disabled
+     * @see SRUCircuitBreakerPolicy
+     */
+    public SRUCircuitState getCircuitState() {
+        return (circuitBreaker != null)
+                ? circuitBreaker.getState()
+                : SRUCircuitState.CLOSED;
+    }
+
+
+    /**
+     * Get the number of requests that are currently performed.
+     *
+     * @return the number of requests in flight
+     */
+    public synchronized int getInFlightCount() {
+        return inFlightCount;
+    }
+
+
+    /**
+     * Get the moving average of the latency of successful requests.
+     *
+     * @return the latency in milliseconds or <code>-1</code> if not available
+     */
+    public synchronized double getLatency() {
+        return latency;
+    }
+
+
+    /**
+     * Get a percentile of the latency distribution of the most recent
+     * requests. Successful requests and requests, that failed due to a
+     * timeout, are taken into account.
+     *
+     * @param percentile
+     *            the percentile, a value between <code>0</code> (exclusive)
+     *            and <code>100</code> (inclusive), e.g. <code>99</code>
+     * @return the latency in milliseconds or <code>-1</code> if not available
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public long getLatencyPercentile(double percentile) {
+        if ((percentile <= 0) || (percentile > 100)) {
+            throw new IllegalArgumentException(
+                    "percentile must be within (0, 100]");
+        }
+        final long[] values;
+        synchronized (this) {
+            if (sampleCount == 0) {
+                return -1;
+            }
+            values = Arrays.copyOf(samples, sampleCount);
+        }
+        Arrays.sort(values);
+        final int rank = (int) Math.ceil((percentile / 100.0) * values.length);
+        return values[Math.max(0, rank - 1)];
+    }
+
+
+    /**
+     * Get the number of latency samples available for computing percentiles.
+     *
+     * @return the number of latency samples
+     * @see #getLatencyPercentile(double)
+     */
+    public synchronized int getLatencySampleCount() {
+        return sampleCount;
+    }
+
+
+    /**
+     * Get the moving average of the error rate.
+     *
+     * @return the error rate, a value between <code>0</code> and
+     *         <code>1</code>
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+
+    /**
+     * Get the moving average of the timeout rate.
+     *
+     * @return the timeout rate, a value between <code>0</code> and
+     *         <code>1</code>
+     */
+    public synchronized double getTimeoutRate() {
+        return timeoutRate;
+    }
+
+
+    /**
+     * Get the moving average of the number of bytes transferred per record.
+     *
+     * @return the number of bytes per record or <code>-1</code> if not
+     *         available
+     */
+    public synchronized double getBytesPerRecord() {
+        return bytesPerRecord;
+    }
+
+
+    /**
+     * Get the time of the last successful request.
+     *
+     * @return the time in milliseconds since the epoch or <code>-1</code> if
+     *         there was no successful request, yet
+     */
+    public synchronized long getLastSuccessTime() {
+        return lastSuccessTime;
+    }
+
+
+    /**
+     * Get the time of the last failed request.
+     *
+     * @return the time in milliseconds since the epoch or <code>-1</code> if
+     *         there was no failed request, yet
+     */
+    public synchronized long getLastFailureTime() {
+        return lastFailureTime;
+    }
+
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SRUEndpointStatistics[");
+        sb.append("baseURI=").append(baseURI);
+        sb.append(", requests=").append(requestCount);
+        sb.append(", errors=").append(errorCount);
+        sb.append(", timeouts=").append(timeoutCount);
+        sb.append(", rejected=").append(rejectedCount);
+        sb.append(", inFlight=").append(inFlightCount);
+        sb.append(", circuit=").append(getCircuitState());
+        sb.append(", latency=").append(latency);
+        sb.append(", errorRate=").append(errorRate);
+        sb.append(", timeoutRate=").append(timeoutRate);
+        sb.append(", bytesPerRecord=").append(bytesPerRecord);
+        sb.append("]");
+        return sb.toString();
+    }
+
+
+    SRUCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+
+    synchronized void onRequestRejected() {
+        rejectedCount++;
+    }
+
+
+    synchronized void onRequestStart() {
+        inFlightCount++;
+    }
+
+
+    synchronized void onRequestSuccess(long millis, long bytes,
+            int records) {
+        inFlightCount--;
+        requestCount++;
+        latency = (latency < 0) ? millis : ewma(latency, millis);
+        addSample(millis);
+        errorRate = ewma(errorRate, 0);
+        timeoutRate = ewma(timeoutRate, 0);
+        if ((bytes > 0) && (records > 0)) {
+            final double value = (double) bytes / records;
+            bytesPerRecord = (bytesPerRecord < 0)
+                    ? value : ewma(bytesPerRecord, value);
+        }
+        lastSuccessTime = System.currentTimeMillis();
+    }
+
+
+    synchronized void onRequestFailure(long millis, boolean timeout) {
+        inFlightCount--;
+        requestCount++;
+        errorCount++;
+        errorRate = ewma(errorRate, 1);
+        if (timeout) {
+            timeoutCount++;
+            timeoutRate = ewma(timeoutRate, 1);
+            /*
+             * The actual latency is unknown, but at least as high as the
+             * time elapsed. Keep it, so adaptive timeouts can grow again.
+             */
+            addSample(millis);
+        } else {
+            timeoutRate = ewma(timeoutRate, 0);
+        }
+        lastFailureTime = System.currentTimeMillis();
+    }
+
+
+    synchronized void onRequestCancelled() {
+        inFlightCount--;
+    }
+
+
+    private void addSample(long millis) {
+        samples[sampleIndex] = millis;
+        sampleIndex = (sampleIndex + 1) % SAMPLE_SIZE;
+        if (sampleCount < SAMPLE_SIZE) {
+            sampleCount++;
+        }
+    }
+
+
+    private static double ewma(double average, double value) {
+        return average + ALPHA * (value - average);
+    }
+
+} // class SRUEndpointStatistics
@@ -0,0 +1,243 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A cache for <em>explain</em> responses, which revalidates cached responses
+ * with conditional requests.
+ * <p>
+ * If an endpoint sends an <code>ETag</code> or <code>Last-Modified</code>
+ * header with an <em>explain</em> response, the parsed response is cached.
+ * Subsequent <em>explain</em> requests for the same endpoint and parameters
+ * are sent with <code>If-None-Match</code> or <code>If-Modified-Since</code>
+ * headers and, if the endpoint answers with <code>304 Not Modified</code>,
+ * the cached record, diagnostics and extra response data are reused without
+ * transferring and parsing the response again. Responses without validators
+ * are not cached.
+ * </p>
+ * <p>
+ * The cache holds at most the configured number of entries and evicts the
+ * least recently used entry, if it is full. It is thread-safe and may be
+ * shared by several clients.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setExplainCache(SRUExplainCache)
+ */
+public final class SRUExplainCache {
+    /** default maximum number of entries, if not otherwise specified */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    private final int maxEntries;
+    private final Map<String, CachedResponse> entries;
+    private long hitCount;
+    private long missCount;
+
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries
+     *            the maximum number of cached responses
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUExplainCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries < 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries =
+                new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, CachedResponse> eldest) {
+                return size() > SRUExplainCache.this.maxEntries;
+            }
+        };
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_MAX_ENTRIES}.
+     */
+    public SRUExplainCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+
+    /**
+     * Get the maximum number of cached responses.
+     *
+     * @return the maximum number of cached responses
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+
+    /**
+     * Get the number of cached responses.
+     *
+     * @return the number of cached responses
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * Get the number of requests, that have been answered from the cache
+     * after the endpoint confirmed that the response was not modified.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+
+    /**
+     * Get the number of requests, for which the endpoint sent a full
+     * response, e.g. because no response was cached or it has been modified.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+
+    /**
+     * Remove all cached responses of an endpoint.
+     *
+     * @param baseURI
+     *            the baseURI of the endpoint
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     */
+    public synchronized void invalidate(URI baseURI) {
+        if (baseURI == null) {
+            throw new NullPointerException("baseURI == null");
+        }
+        final Iterator<CachedResponse> i = entries.values().iterator();
+        while (i.hasNext()) {
+            if (baseURI.equals(i.next().baseURI)) {
+                i.remove();
+            }
+        }
+    }
+
+
+    /**
+     * Remove all cached responses.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+
+    synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+
+    synchronized void onHit() {
+        hitCount++;
+    }
+
+
+    synchronized void onMiss(String key, CachedResponse entry) {
+        missCount++;
+        if (entry != null) {
+            entries.put(key, entry);
+        } else {
+            entries.remove(key);
+        }
+    }
+
+
+    /*
+     * The cache key consists of the normalized request and the flag, that
+     * changes how the response is parsed.
+     */
+    static String makeKey(SRUExplainRequest request,
+            SRUVersion defaultVersion, SRURequestMethod defaultRequestMethod)
+            throws SRUClientException {
+        return request.makeKey(defaultVersion, defaultRequestMethod) + '\n' +
+                request.isParseRecordDataEnabled();
+    }
+
+
+    /*
+     * A cached response along with its validators.
+     */
+    static final class CachedResponse {
+        private final URI baseURI;
+        private final String etag;
+        private final String lastModified;
+        private final List<SRUDiagnostic> diagnostics;
+        private final List<SRUExtraResponseData> extraResponseData;
+        private final SRURecord record;
+
+
+        CachedResponse(URI baseURI, String etag, String lastModified,
+                List<SRUDiagnostic> diagnostics,
+                List<SRUExtraResponseData> extraResponseData,
+                SRURecord record) {
+            this.baseURI           = baseURI;
+            this.etag              = etag;
+            this.lastModified      = lastModified;
+            this.diagnostics       = diagnostics;
+            this.extraResponseData = extraResponseData;
+            this.record            = record;
+        }
+
+
+        String getETag() {
+            return etag;
+        }
+
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+
+        List<SRUDiagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+
+        List<SRUExtraResponseData> getExtraResponseData() {
+            return extraResponseData;
+        }
+
+
+        SRURecord getRecord() {
+            return record;
+        }
+    } // class CachedResponse
+
+} // class SRUExplainCache
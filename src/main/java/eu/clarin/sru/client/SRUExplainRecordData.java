@@ -37,9 +37,11 @@ public class SRUExplainRecordData implements SRURecordData {
         private final String database;
         private final SRUVersion version;
         private final Set<String> transport;
+        private final Set<SRURequestMethod> methods;
 
         ServerInfo(String host, int port, String database,
-                String protocol, SRUVersion version, Set<String> transport) {
+                String protocol, SRUVersion version, Set<String> transport,
+                Set<SRURequestMethod> methods) {
             if (host == null) {
                 throw new NullPointerException("host == null");
             }
@@ -61,11 +63,15 @@ public class SRUExplainRecordData implements SRURecordData {
             if (transport == null) {
                 throw new NullPointerException("transport == null");
             }
+            if (methods == null) {
+                throw new NullPointerException("methods == null");
+            }
             this.host      = host;
             this.port      = port;
             this.database  = database;
             this.version   = version;
             this.transport = Collections.unmodifiableSet(transport);
+            this.methods   = Collections.unmodifiableSet(methods);
         }
 
 
@@ -92,6 +98,20 @@ public class SRUExplainRecordData implements SRURecordData {
         public Set<String> getTransport() {
             return transport;
         }
+
+
+        /**
+         * Get the HTTP request methods supported by the endpoint, as
+         * announced in the <code>method</code> attribute of the
+         * <code>serverInfo</code> element. If the attribute is missing, only
+         * {@link SRURequestMethod#GET} is assumed.
+         *
+         * @return the set of supported request methods
+         * @see SRUAbstractRequest#setRequestMethod(SRURequestMethod)
+         */
+        public Set<SRURequestMethod> getMethods() {
+            return methods;
+        }
     } // class ServerInfo
 
     public static final class LocalizedString {
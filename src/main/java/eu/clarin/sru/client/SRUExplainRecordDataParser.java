@@ -17,6 +17,7 @@
 package eu.clarin.sru.client;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -55,6 +56,8 @@ class SRUExplainRecordDataParser {
     private static final String VERSION_2_0     = "2.0";
     private static final String TRANSPORT_HTTP  = "http";
     private static final String TRANSPORT_HTTPS = "https";
+    private static final String METHOD_GET      = "GET";
+    private static final String METHOD_POST     = "POST";
     private static final String STRING_TRUE     = "true";
     private static final String PRIMARY_FALSE   = "false";
     private static final Logger logger =
@@ -220,6 +223,25 @@ class SRUExplainRecordDataParser {
         } else {
             transports.add(TRANSPORT_HTTP);
         }
+
+        Set<SRURequestMethod> methods = EnumSet.noneOf(SRURequestMethod.class);
+        s = XmlStreamReaderUtils.readAttributeValue(reader, null, "method");
+        if (s != null) {
+            for (String i : s.split("\\s+")) {
+                if (METHOD_GET.equalsIgnoreCase(i)) {
+                    methods.add(SRURequestMethod.GET);
+                } else if (METHOD_POST.equalsIgnoreCase(i)) {
+                    methods.add(SRURequestMethod.POST);
+                } else if (!i.isEmpty()) {
+                    /* e.g. SOAP, which is not supported by this client */
+                    logger.debug("ignoring value '{}' in 'method' attribute " +
+                            "of element '{}'", i, reader.getName());
+                }
+            } // for
+        }
+        if (methods.isEmpty()) {
+            methods.add(SRURequestMethod.GET);
+        }
         XmlStreamReaderUtils.consumeStart(reader);
 
         final String host = XmlStreamReaderUtils.readContent(reader,
@@ -239,10 +261,10 @@ class SRUExplainRecordDataParser {
         }
         XmlStreamReaderUtils.readEnd(reader, ns, "serverInfo", true);
         logger.debug("serverInfo: host={}, port={}, database={}, version={}, " +
-                "protocol={}, transport={}", host, port, database, version,
-                protocol, transports);
+                "protocol={}, transport={}, method={}", host, port, database,
+                version, protocol, transports, methods);
         return new ServerInfo(host, port, database, protocol, version,
-                transports);
+                transports, methods);
     }
 
 
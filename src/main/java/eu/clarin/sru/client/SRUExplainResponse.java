@@ -31,14 +31,15 @@ public final class SRUExplainResponse extends
     SRUExplainResponse(SRUExplainRequest request,
             List<SRUDiagnostic> diagnostics,
             List<SRUExtraResponseData> extraResponseData,
-            int totalBytesTransferred,
+            long totalBytesTransferred,
+            long totalBytesDecoded,
             long timeTotal,
             long timeQueued,
             long timeNetwork,
             long timeProcessing,
             SRURecord record) {
         super(request, diagnostics, extraResponseData, totalBytesTransferred,
-                timeTotal, timeQueued, timeNetwork, timeProcessing);
+                totalBytesDecoded, timeTotal, timeQueued, timeNetwork, timeProcessing);
         this.record = record;
     }
 
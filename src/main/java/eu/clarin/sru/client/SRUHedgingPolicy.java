@@ -0,0 +1,147 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/**
+ * A policy for hedging latency-critical requests.
+ * <p>
+ * If a <em>explain</em> or <em>searchRetrieve</em> request has not completed
+ * within the configured percentile of the recent latencies of its endpoint, a
+ * second, identical request is sent to the endpoint. The first successful
+ * response is passed to the callback and the other request is cancelled. The
+ * hedging delay is never shorter than the configured minimum delay. Until
+ * enough latency samples are available for an endpoint, requests are not
+ * hedged.
+ * </p>
+ * <p>
+ * Hedging trades additional endpoint load for lower tail latency and should
+ * only be used with endpoints that can tolerate duplicate requests. This
+ * policy is only used by the asynchronous callback interface of the
+ * {@link SRUThreadedClient}.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setHedgingPolicy(SRUHedgingPolicy)
+ * @see SRUEndpointStatistics#getLatencyPercentile(double)
+ */
+public final class SRUHedgingPolicy {
+    /** default percentile to be used, if not otherwise specified */
+    public static final double DEFAULT_PERCENTILE = 95;
+    /** default minimum hedging delay, if not otherwise specified */
+    public static final int DEFAULT_MIN_DELAY = 50;
+    /**
+     * default number of latency samples required before requests are hedged,
+     * if not otherwise specified
+     */
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    private final double percentile;
+    private final int minDelay;
+    private final int minSamples;
+
+
+    /**
+     * Constructor.
+     *
+     * @param percentile
+     *            the percentile of the latency distribution, after which a
+     *            request is hedged, e.g. <code>95</code>
+     * @param minDelay
+     *            the minimum hedging delay in milliseconds
+     * @param minSamples
+     *            the number of latency samples required before requests to an
+     *            endpoint are hedged
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUHedgingPolicy(double percentile, int minDelay, int minSamples) {
+        if ((percentile <= 0) || (percentile > 100)) {
+            throw new IllegalArgumentException(
+                    "percentile must be within (0, 100]");
+        }
+        if (minDelay < 1) {
+            throw new IllegalArgumentException("minDelay < 1");
+        }
+        if (minSamples < 1) {
+            throw new IllegalArgumentException("minSamples < 1");
+        }
+        this.percentile = percentile;
+        this.minDelay   = minDelay;
+        this.minSamples = minSamples;
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_PERCENTILE},
+     * {@link #DEFAULT_MIN_DELAY} and {@link #DEFAULT_MIN_SAMPLES}.
+     */
+    public SRUHedgingPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_MIN_DELAY, DEFAULT_MIN_SAMPLES);
+    }
+
+
+    /**
+     * Get the percentile of the latency distribution, after which a request is
+     * hedged.
+     *
+     * @return the percentile
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+
+    /**
+     * Get the minimum hedging delay.
+     *
+     * @return the minimum hedging delay in milliseconds
+     */
+    public int getMinDelay() {
+        return minDelay;
+    }
+
+
+    /**
+     * Get the number of latency samples required before requests to an
+     * endpoint are hedged.
+     *
+     * @return the number of latency samples
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+
+    /**
+     * Compute the hedging delay for an endpoint.
+     *
+     * @param statistics
+     *            the statistics of the endpoint
+     * @return the delay in milliseconds or <code>-1</code>, if the request
+     *         should not be hedged
+     */
+    long computeDelay(SRUEndpointStatistics statistics) {
+        if (statistics.getLatencySampleCount() < minSamples) {
+            return -1;
+        }
+        final long latency = statistics.getLatencyPercentile(percentile);
+        if (latency < 0) {
+            return -1;
+        }
+        return Math.max(minDelay, latency);
+    }
+
+} // class SRUHedgingPolicy
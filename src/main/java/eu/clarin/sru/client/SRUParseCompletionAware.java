@@ -0,0 +1,34 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.IOException;
+
+
+/*
+ * Internal extension for transport responses, that need to know, if the
+ * client parsed the response completely and successfully, e.g. to store it in
+ * a cache. The notification is sent before the body stream is closed and
+ * tells, if the response contained diagnostics. SRU reports errors, e.g. a
+ * temporarily unavailable database, as diagnostics in an otherwise
+ * successful response.
+ */
+interface SRUParseCompletionAware {
+
+    public void onParseComplete(boolean diagnostics) throws IOException;
+
+} // interface SRUParseCompletionAware
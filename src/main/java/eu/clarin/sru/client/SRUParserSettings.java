@@ -0,0 +1,190 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import org.codehaus.stax2.XMLInputFactory2;
+
+
+/**
+ * Settings for the XML parser, that is used to parse SRU responses.
+ * <p>
+ * The settings allow to match the parser to the workload of a client:
+ * </p>
+ * <ul>
+ * <li>the <em>input buffer length</em> is the size (in characters) of the
+ * buffer, the parser reads the response into,</li>
+ * <li>if <em>lazy parsing</em> is enabled, the parser does not parse the
+ * content of an event until it is accessed, which makes skipping content,
+ * that is not needed, cheaper,</li>
+ * <li>if <em>coalescing</em> is enabled, adjacent character data is always
+ * reported as a single event,</li>
+ * <li>if <em>symbol table sharing</em> is enabled, all clients created from
+ * the same configuration share a single parser factory and therefore the table
+ * of element and attribute names. Otherwise every client uses its own
+ * factory, which avoids contention between the worker threads of a
+ * {@link SRUThreadedClient}.</li>
+ * </ul>
+ * <p>
+ * {@link #forLargeRecords()} and {@link #forManySmallResponses()} provide
+ * ready-made settings for typical workloads.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setParserSettings(SRUParserSettings)
+ */
+public final class SRUParserSettings {
+    /** default input buffer length, if not otherwise specified */
+    public static final int DEFAULT_INPUT_BUFFER_LENGTH = 4000;
+    /** default settings */
+    public static final SRUParserSettings DEFAULT =
+            new SRUParserSettings(DEFAULT_INPUT_BUFFER_LENGTH, false, false,
+                    true);
+    private final int inputBufferLength;
+    private final boolean lazyParsing;
+    private final boolean coalescing;
+    private final boolean symbolTableSharing;
+    private XMLInputFactory2 sharedFactory;
+
+
+    /**
+     * Constructor.
+     *
+     * @param inputBufferLength
+     *            the length of the input buffer in characters
+     * @param lazyParsing
+     *            <code>true</code> to enable lazy parsing,
+     *            <code>false</code> to disable it
+     * @param coalescing
+     *            <code>true</code> to coalesce adjacent character data,
+     *            <code>false</code> otherwise
+     * @param symbolTableSharing
+     *            <code>true</code> to share the symbol table between all
+     *            clients using these settings, <code>false</code> otherwise
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUParserSettings(int inputBufferLength, boolean lazyParsing,
+            boolean coalescing, boolean symbolTableSharing) {
+        if (inputBufferLength < 256) {
+            throw new IllegalArgumentException("inputBufferLength < 256");
+        }
+        this.inputBufferLength  = inputBufferLength;
+        this.lazyParsing        = lazyParsing;
+        this.coalescing         = coalescing;
+        this.symbolTableSharing = symbolTableSharing;
+    }
+
+
+    /**
+     * Get settings for responses with large records, e.g. full text
+     * documents. These settings use a large input buffer and lazy parsing,
+     * so content, that is skipped, is not parsed at all.
+     *
+     * @return the settings for large records
+     */
+    public static SRUParserSettings forLargeRecords() {
+        return new SRUParserSettings(64 * 1024, true, false, true);
+    }
+
+
+    /**
+     * Get settings for many small responses, e.g. <em>scan</em> requests or
+     * <em>searchRetrieve</em> requests with few, small records. These
+     * settings use a small input buffer, eager parsing and a parser factory
+     * per client, so the worker threads of a {@link SRUThreadedClient} do not
+     * contend for a shared symbol table.
+     *
+     * @return the settings for many small responses
+     */
+    public static SRUParserSettings forManySmallResponses() {
+        return new SRUParserSettings(1024, false, false, false);
+    }
+
+
+    /**
+     * Get the length of the input buffer.
+     *
+     * @return the length of the input buffer in characters
+     */
+    public int getInputBufferLength() {
+        return inputBufferLength;
+    }
+
+
+    /**
+     * Check, if lazy parsing is enabled.
+     *
+     * @return <code>true</code> if lazy parsing is enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isLazyParsingEnabled() {
+        return lazyParsing;
+    }
+
+
+    /**
+     * Check, if adjacent character data is coalesced.
+     *
+     * @return <code>true</code> if coalescing is enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isCoalescingEnabled() {
+        return coalescing;
+    }
+
+
+    /**
+     * Check, if the symbol table is shared between all clients using these
+     * settings.
+     *
+     * @return <code>true</code> if the symbol table is shared,
+     *         <code>false</code> otherwise
+     */
+    public boolean isSymbolTableSharingEnabled() {
+        return symbolTableSharing;
+    }
+
+
+    /*
+     * Get the parser factory for a client. If the symbol table is shared,
+     * all clients get the same factory, otherwise a new one.
+     */
+    XMLInputFactory2 getInputFactory() {
+        if (!symbolTableSharing) {
+            return SRUXMLStreamReader.createFactory(this);
+        }
+        synchronized (this) {
+            if (sharedFactory == null) {
+                sharedFactory = SRUXMLStreamReader.createFactory(this);
+            }
+            return sharedFactory;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName());
+        sb.append("[inputBufferLength=").append(inputBufferLength);
+        sb.append(", lazyParsing=").append(lazyParsing);
+        sb.append(", coalescing=").append(coalescing);
+        sb.append(", symbolTableSharing=").append(symbolTableSharing);
+        sb.append("]");
+        return sb.toString();
+    }
+
+} // class SRUParserSettings
@@ -0,0 +1,63 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+/**
+ * A control object, that allows a response handler to stop the parsing of a
+ * response early, e.g. if it has received enough records for a preview.
+ * <p>
+ * Pass an instance to
+ * {@link SRUSimpleClient#searchRetrieve(SRUSearchRetrieveRequest, SRUSearchRetrieveHandler, SRUParsingControl)}
+ * or
+ * {@link SRUSimpleClient#scan(SRUScanRequest, SRUScanHandler, SRUParsingControl)}
+ * and call {@link #stop()} from within a handler callback. The client stops
+ * parsing after the current record or term, finishes the records or terms
+ * (i.e. calls <code>onFinishRecords()</code> or <code>onFinishTerms()</code>
+ * on the handler) and closes the connection without reading the rest of the
+ * response. Diagnostics and extra response data following the records or
+ * terms are not reported.
+ * </p>
+ * <p>
+ * This class is thread-safe, i.e. {@link #stop()} may also be called from
+ * another thread; in this case the request is stopped at the next record or
+ * term boundary. An instance must not be used for more than one request.
+ * </p>
+ */
+public final class SRUParsingControl {
+    private volatile boolean stopped = false;
+
+
+    /**
+     * Request to stop parsing the response.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+
+    /**
+     * Check, if stopping the parsing of the response has been requested.
+     *
+     * @return <code>true</code>, if {@link #stop()} has been called,
+     *         <code>false</code> otherwise
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+} // class SRUParsingControl
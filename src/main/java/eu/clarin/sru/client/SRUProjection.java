@@ -0,0 +1,54 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+/**
+ * The parts of a <em>searchRetrieve</em> response, that are needed by the
+ * client. Parts, that are not needed, are skipped by the parser.
+ *
+ * @see SRUSearchRetrieveRequest#setProjection(SRUProjection)
+ */
+public enum SRUProjection {
+    /**
+     * The complete response is parsed.
+     */
+    FULL,
+
+    /**
+     * The complete response is parsed, except the <em>extraRecordData</em>
+     * of the records and the <em>extraResponseData</em> of the response.
+     */
+    NO_EXTRA_DATA,
+
+    /**
+     * Only the record envelopes are parsed, i.e. record schema, identifier
+     * and position. The record data is skipped and reported as
+     * {@link SRUSkippedRecordData}. The <em>extraRecordData</em> and the
+     * <em>extraResponseData</em> are skipped, too.
+     */
+    IDENTIFIERS,
+
+    /**
+     * Only the number of records (and the result set id) is parsed. If the
+     * result set is not empty, parsing stops as soon as the number of records
+     * is known and the connection is closed without reading the rest of the
+     * response. Otherwise the response is parsed completely, i.e. diagnostics,
+     * that explain the empty result, are still reported.
+     */
+    COUNT;
+
+} // enum SRUProjection
@@ -0,0 +1,197 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.codehaus.stax2.XMLInputFactory2;
+
+
+/*
+ * Pipeline for parsing the record data of a single searchRetrieve response in
+ * parallel. The envelope reader captures the record data of each record into
+ * a buffer, which is parsed by a record data parser in a fork-join pool. The
+ * records are queued in document order and handed back to the envelope reader
+ * in the same order, once they have been parsed. Only the records within a
+ * bounded window may be in flight at any time.
+ */
+final class SRURecordDataPipeline {
+    private static final XMLOutputFactory OUTPUT_FACTORY;
+    private final ForkJoinPool pool;
+    private final XMLInputFactory2 inputFactory;
+    private final int window;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final ByteArrayOutputStream buffer =
+            new ByteArrayOutputStream(4096);
+
+
+    SRURecordDataPipeline(ForkJoinPool pool, XMLInputFactory2 inputFactory) {
+        this.pool         = pool;
+        this.inputFactory = inputFactory;
+        this.window       = Math.max(2, pool.getParallelism() * 4);
+    }
+
+
+    /*
+     * Capture the element at the current position of the reader and submit it
+     * for parsing. The reader is positioned after the end tag of the element.
+     */
+    ForkJoinTask<SRURecordData> submit(final SRURecordDataParser parser,
+            SRUXMLStreamReader reader) throws XMLStreamException {
+        buffer.reset();
+        final XMLStreamWriter writer =
+                OUTPUT_FACTORY.createXMLStreamWriter(buffer, "UTF-8");
+        reader.copyTo(writer);
+        writer.close();
+        return pool.submit(new ParseTask(parser, inputFactory,
+                buffer.toByteArray()));
+    }
+
+
+    void add(String identifier, int position, String schema,
+            ForkJoinTask<SRURecordData> task, SRURecordData data,
+            SRUDiagnostic surrogate) {
+        pending.add(new Entry(identifier, position, schema, task, data,
+                surrogate));
+    }
+
+
+    /*
+     * Get the next record in document order, if it has been parsed. If
+     * 'wait' is true or the window is full, wait for the next record to be
+     * parsed.
+     */
+    Entry poll(boolean wait) {
+        final Entry entry = pending.peek();
+        if ((entry != null) && (wait || (pending.size() > window) ||
+                (entry.task == null) || entry.task.isDone())) {
+            return pending.poll();
+        }
+        return null;
+    }
+
+
+    void clear() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            if (entry.task != null) {
+                entry.task.cancel(false);
+            }
+        }
+    }
+
+
+    static final class Entry {
+        final String identifier;
+        final int position;
+        final String schema;
+        private final ForkJoinTask<SRURecordData> task;
+        private final SRURecordData data;
+        final SRUDiagnostic surrogate;
+
+
+        private Entry(String identifier, int position, String schema,
+                ForkJoinTask<SRURecordData> task, SRURecordData data,
+                SRUDiagnostic surrogate) {
+            this.identifier = identifier;
+            this.position   = position;
+            this.schema     = schema;
+            this.task       = task;
+            this.data       = data;
+            this.surrogate  = surrogate;
+        }
+
+
+        SRURecordData getData() throws SRUClientException {
+            if (task == null) {
+                return data;
+            }
+            final SRURecordData result = task.join();
+            final Exception error = ((ParseTask) task).error;
+            if (error instanceof SRUClientException) {
+                throw (SRUClientException) error;
+            } else if (error != null) {
+                throw new SRUClientException("error parsing record", error);
+            }
+            return result;
+        }
+    } // class Entry
+
+
+    @SuppressWarnings("serial")
+    private static final class ParseTask
+            extends RecursiveTask<SRURecordData> {
+        private final SRURecordDataParser parser;
+        private final XMLInputFactory2 inputFactory;
+        private final byte[] data;
+        private Exception error;
+
+
+        private ParseTask(SRURecordDataParser parser,
+                XMLInputFactory2 inputFactory, byte[] data) {
+            this.parser       = parser;
+            this.inputFactory = inputFactory;
+            this.data         = data;
+        }
+
+
+        @Override
+        protected SRURecordData compute() {
+            SRUXMLStreamReader reader = null;
+            try {
+                reader = new SRUXMLStreamReader(inputFactory,
+                        new ByteArrayInputStream(data));
+                /*
+                 * position on the record root like the envelope reader in
+                 * sequential mode, so the parser sees the same events
+                 */
+                reader.nextTag();
+                final XmlStreamReaderProxy proxy = new XmlStreamReaderProxy();
+                proxy.reset(reader);
+                return parser.parse(proxy);
+            } catch (XMLStreamException e) {
+                /* re-thrown on the thread, that reads the response */
+                error = e;
+                return null;
+            } catch (SRUClientException e) {
+                error = e;
+                return null;
+            } finally {
+                if (reader != null) {
+                    reader.closeCompletly();
+                }
+            }
+        }
+    } // class ParseTask
+
+
+    static {
+        OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+        OUTPUT_FACTORY.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES,
+                Boolean.TRUE);
+    }
+
+} // class SRURecordDataPipeline
@@ -0,0 +1,114 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/*
+ * The deadline of a single request. When the deadline expires, the HTTP
+ * exchange is aborted, which makes any blocked read fail immediately, even if
+ * the endpoint keeps sending data slowly.
+ */
+final class SRURequestDeadline implements Runnable {
+    private static final Logger logger =
+            LoggerFactory.getLogger(SRURequestDeadline.class);
+    private static final ScheduledThreadPoolExecutor timer;
+    private final int timeout;
+    private final long deadline;
+    private final SRUAbortHandle handle;
+    private final ScheduledFuture<?> future;
+    private volatile boolean expired = false;
+
+
+    private SRURequestDeadline(int timeout, SRUAbortHandle handle) {
+        this.timeout  = timeout;
+        this.handle   = handle;
+        this.deadline = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.future   = timer.schedule(this, timeout, TimeUnit.MILLISECONDS);
+    }
+
+
+    @Override
+    public void run() {
+        expired = true;
+        logger.debug("request deadline of {} milli(s) expired; " +
+                "aborting request", timeout);
+        handle.abort();
+    }
+
+
+    int getTimeout() {
+        return timeout;
+    }
+
+
+    long getRemaining() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(
+                deadline - System.nanoTime()));
+    }
+
+
+    boolean isExpired() {
+        return expired || (System.nanoTime() - deadline >= 0);
+    }
+
+
+    void check() throws SRURequestTimeoutException {
+        if (isExpired()) {
+            throw new SRURequestTimeoutException("request deadline of " +
+                    timeout + " milli(s) exceeded", timeout, null);
+        }
+    }
+
+
+    void cancel() {
+        future.cancel(false);
+    }
+
+
+    static SRURequestDeadline start(int timeout, SRUAbortHandle handle) {
+        if (timeout < 1) {
+            throw new IllegalArgumentException("timeout < 1");
+        }
+        if (handle == null) {
+            throw new NullPointerException("handle == null");
+        }
+        return new SRURequestDeadline(timeout, handle);
+    }
+
+
+    static {
+        timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "sru-client-deadline");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+} // class SRURequestDeadline
@@ -0,0 +1,37 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+/**
+ * HTTP request method used for sending a SRU request.
+ */
+public enum SRURequestMethod {
+    /**
+     * HTTP GET, i.e. the request parameters are sent in the query string of
+     * the request URI
+     */
+    GET,
+
+    /**
+     * HTTP POST, i.e. the request parameters are sent as a form-encoded
+     * (<code>application/x-www-form-urlencoded</code>) request body. Use for
+     * long queries, that would otherwise exceed the URI length limits of
+     * endpoints or proxies.
+     */
+    POST;
+
+} // enum SRURequestMethod
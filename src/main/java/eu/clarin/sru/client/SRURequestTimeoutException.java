@@ -0,0 +1,57 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+/**
+ * SRU client exception raised when a request could not be completed within
+ * its deadline.
+ *
+ * @see SRUAbstractRequest#setRequestTimeout(int)
+ * @see SRUClientConfig.Builder#setRequestTimeout(int)
+ */
+@SuppressWarnings("serial")
+public class SRURequestTimeoutException extends SRUClientException {
+    private final int timeout;
+
+
+    /**
+     * Constructor
+     *
+     * @param message
+     *            an error message
+     * @param timeout
+     *            the request timeout in milliseconds
+     * @param cause
+     *            the cause of the error
+     */
+    public SRURequestTimeoutException(String message, int timeout,
+            Throwable cause) {
+        super(message, cause);
+        this.timeout = timeout;
+    }
+
+
+    /**
+     * Get the request timeout that has been exceeded.
+     *
+     * @return the request timeout in milliseconds
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+} // class SRURequestTimeoutException
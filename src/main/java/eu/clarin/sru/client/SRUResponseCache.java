@@ -0,0 +1,476 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * An in-memory cache for <em>scan</em> and <em>searchRetrieve</em>
+ * responses.
+ * <p>
+ * Responses are cached under a key, which consists of the normalized request
+ * parameters and, if authentication is sent, the authentication context. The
+ * cache is bounded by the estimated size of the cached responses, which is
+ * derived from the number of decoded response bytes. New responses are
+ * admitted to a small window; when they leave the window, they only replace
+ * an older response, if they have been requested more frequently (an
+ * approximation of W-TinyLFU eviction). This keeps popular responses cached,
+ * even if many responses are only requested once.
+ * </p>
+ * <p>
+ * Cached responses expire after the configured time-to-live. For
+ * <em>searchRetrieve</em> responses, the time-to-live is shortened to the
+ * result set idle time reported by the endpoint or the <em>resultSetTTL</em>
+ * of the request, because a cached result set id would not be valid any
+ * longer. Responses with diagnostics are not cached.
+ * </p>
+ * <p>
+ * Cached responses are shared: a cache hit returns the response object, that
+ * was created by the request which populated the cache, including its request
+ * and statistics. The cache is thread-safe and may be shared by several
+ * clients.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setResponseCache(SRUResponseCache)
+ */
+public final class SRUResponseCache {
+    /**
+     * default maximum estimated size of the cache in bytes, if not otherwise
+     * specified
+     */
+    public static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+    /** default time-to-live in milliseconds, if not otherwise specified */
+    public static final long DEFAULT_TIME_TO_LIVE = 300000;
+    /* size of the admission window relative to the maximum size */
+    private static final int WINDOW_PERCENT = 1;
+    /* fixed per-entry overhead added to the estimated size */
+    private static final int ENTRY_OVERHEAD = 256;
+    /* estimated size of a response without statistics */
+    private static final int DEFAULT_RESPONSE_SIZE = 4096;
+    private final long maxSize;
+    private final long timeToLive;
+    private final long windowMaxSize;
+    private final long mainMaxSize;
+    private final Map<String, Entry> window =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> main =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long windowSize;
+    private long mainSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize
+     *            the maximum estimated size of all cached responses in bytes
+     * @param timeToLive
+     *            the time-to-live of cached responses in milliseconds
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRUResponseCache(long maxSize, long timeToLive) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize < 1");
+        }
+        if (timeToLive < 1) {
+            throw new IllegalArgumentException("timeToLive < 1");
+        }
+        this.maxSize       = maxSize;
+        this.timeToLive    = timeToLive;
+        this.windowMaxSize = Math.max(1, (maxSize * WINDOW_PERCENT) / 100);
+        this.mainMaxSize   = Math.max(1, maxSize - windowMaxSize);
+        this.sketch        = new FrequencySketch(
+                maxSize / DEFAULT_RESPONSE_SIZE);
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_MAX_SIZE} and
+     * {@link #DEFAULT_TIME_TO_LIVE}.
+     */
+    public SRUResponseCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+
+    /**
+     * Get the maximum estimated size of all cached responses.
+     *
+     * @return the maximum size in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+
+    /**
+     * Get the time-to-live of cached responses.
+     *
+     * @return the time-to-live in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+
+    /**
+     * Get the number of cached responses.
+     *
+     * @return the number of cached responses
+     */
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+
+    /**
+     * Get the estimated size of all cached responses.
+     *
+     * @return the estimated size in bytes
+     */
+    public synchronized long getEstimatedSize() {
+        return windowSize + mainSize;
+    }
+
+
+    /**
+     * Get the number of requests, that have been answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+
+    /**
+     * Get the number of requests, that could not be answered from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+
+    /**
+     * Get the ratio of requests, that have been answered from the cache.
+     *
+     * @return the hit rate between <code>0</code> and <code>1</code> or
+     *         <code>0</code>, if no requests have been performed, yet
+     */
+    public synchronized double getHitRate() {
+        final long total = hitCount + missCount;
+        return (total > 0) ? ((double) hitCount / total) : 0.0;
+    }
+
+
+    /**
+     * Get the number of responses, that have been evicted or not admitted to
+     * the cache, because it was full.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+
+    /**
+     * Remove all cached responses of an endpoint.
+     *
+     * @param baseURI
+     *            the baseURI of the endpoint
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     */
+    public synchronized void invalidate(URI baseURI) {
+        if (baseURI == null) {
+            throw new NullPointerException("baseURI == null");
+        }
+        windowSize -= invalidate(window, baseURI);
+        mainSize   -= invalidate(main, baseURI);
+    }
+
+
+    /**
+     * Remove all cached responses.
+     */
+    public synchronized void clear() {
+        window.clear();
+        main.clear();
+        windowSize = 0;
+        mainSize   = 0;
+    }
+
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName());
+        sb.append("[entries=").append(size());
+        sb.append(", size=").append(windowSize + mainSize);
+        sb.append(", maxSize=").append(maxSize);
+        sb.append(", hits=").append(hitCount);
+        sb.append(", misses=").append(missCount);
+        sb.append(", evictions=").append(evictionCount);
+        sb.append(", hitRate=").append(getHitRate());
+        sb.append("]");
+        return sb.toString();
+    }
+
+
+    synchronized <T extends SRUAbstractResponse<?>> T get(String key,
+            Class<T> type) {
+        sketch.increment(key);
+        Entry entry = window.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        if (entry != null) {
+            if (entry.isExpired(System.nanoTime())) {
+                remove(key);
+            } else if (type.isInstance(entry.response)) {
+                hitCount++;
+                return type.cast(entry.response);
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+
+    synchronized void put(String key, SRUAbstractResponse<?> response) {
+        if (response.hasDiagnostics()) {
+            return;
+        }
+        final long ttl = computeTimeToLive(response);
+        if (ttl < 1) {
+            return;
+        }
+        final long size = estimateSize(key, response);
+        if (size > mainMaxSize) {
+            return;
+        }
+
+        remove(key);
+        final long expires = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(ttl);
+        window.put(key, new Entry(key, response, size, expires));
+        windowSize += size;
+
+        /* move responses, that leave the window, to the main area */
+        while (windowSize > windowMaxSize) {
+            final Iterator<Entry> i = window.values().iterator();
+            final Entry candidate = i.next();
+            i.remove();
+            windowSize -= candidate.size;
+            admit(candidate);
+        }
+    }
+
+
+    private void admit(Entry candidate) {
+        final long now = System.nanoTime();
+        final int frequency = sketch.frequency(candidate.key);
+        while (mainSize + candidate.size > mainMaxSize) {
+            final Iterator<Entry> i = main.values().iterator();
+            final Entry victim = i.next();
+            /*
+             * expired responses are always replaced, otherwise the more
+             * frequently requested response is kept
+             */
+            if (!victim.isExpired(now) &&
+                    (sketch.frequency(victim.key) >= frequency)) {
+                evictionCount++;
+                return;
+            }
+            i.remove();
+            mainSize -= victim.size;
+            if (!victim.isExpired(now)) {
+                evictionCount++;
+            }
+        }
+        main.put(candidate.key, candidate);
+        mainSize += candidate.size;
+    }
+
+
+    private void remove(String key) {
+        Entry entry = window.remove(key);
+        if (entry != null) {
+            windowSize -= entry.size;
+        }
+        entry = main.remove(key);
+        if (entry != null) {
+            mainSize -= entry.size;
+        }
+    }
+
+
+    private long computeTimeToLive(SRUAbstractResponse<?> response) {
+        long ttl = timeToLive;
+        if (response instanceof SRUSearchRetrieveResponse) {
+            final SRUSearchRetrieveResponse r =
+                    (SRUSearchRetrieveResponse) response;
+            if (r.getResultSetIdleTime() > 0) {
+                ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(
+                        r.getResultSetIdleTime()));
+            }
+            if (r.getRequest().getResultSetTTL() > 0) {
+                ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(
+                        r.getRequest().getResultSetTTL()));
+            }
+        }
+        return ttl;
+    }
+
+
+    private static long invalidate(Map<String, Entry> entries, URI baseURI) {
+        long removed = 0;
+        final Iterator<Entry> i = entries.values().iterator();
+        while (i.hasNext()) {
+            final Entry entry = i.next();
+            if (baseURI.equals(entry.response.getRequest().getBaseURI())) {
+                i.remove();
+                removed += entry.size;
+            }
+        }
+        return removed;
+    }
+
+
+    private static long estimateSize(String key,
+            SRUAbstractResponse<?> response) {
+        long size = response.getTotalBytesDecoded();
+        if (size < 0) {
+            size = response.getTotalBytesTransferred();
+        }
+        if (size < 0) {
+            size = DEFAULT_RESPONSE_SIZE;
+        }
+        return size + (2 * key.length()) + ENTRY_OVERHEAD;
+    }
+
+
+    private static final class Entry {
+        private final String key;
+        private final SRUAbstractResponse<?> response;
+        private final long size;
+        private final long expires;
+
+
+        private Entry(String key, SRUAbstractResponse<?> response, long size,
+                long expires) {
+            this.key      = key;
+            this.response = response;
+            this.size     = size;
+            this.expires  = expires;
+        }
+
+
+        private boolean isExpired(long now) {
+            return (now - expires) >= 0;
+        }
+    } // class Entry
+
+
+    /*
+     * A count-min sketch with 4-bit counters, which estimates how often a key
+     * has been requested. All counters are halved periodically, so the
+     * estimate follows changes in popularity.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int MIN_WIDTH = 256;
+        private static final int MAX_WIDTH = 65536;
+        private static final int[] SEEDS = {
+            0x97cb3127, 0x84222325, 0xb492b66f, 0x9ae16a3b
+        };
+        private final byte[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+
+        private FrequencySketch(long expectedEntries) {
+            int width = MIN_WIDTH;
+            while ((width < expectedEntries) && (width < MAX_WIDTH)) {
+                width <<= 1;
+            }
+            this.table      = new byte[DEPTH * width];
+            this.mask       = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+
+        private void increment(String key) {
+            final int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                final int idx = index(hash, i);
+                if (table[idx] < MAX_COUNT) {
+                    table[idx]++;
+                    added = true;
+                }
+            }
+            if (added && (++additions >= sampleSize)) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] >>= 1;
+                }
+                additions >>= 1;
+            }
+        }
+
+
+        private int frequency(String key) {
+            final int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) {
+                frequency = Math.min(frequency, table[index(hash, i)]);
+            }
+            return frequency;
+        }
+
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return (row * (mask + 1)) + (h & mask);
+        }
+
+
+        private static int spread(int h) {
+            h ^= h >>> 17;
+            h *= 0xed5ad4bb;
+            h ^= h >>> 11;
+            return h;
+        }
+    } // class FrequencySketch
+
+} // class SRUResponseCache
@@ -0,0 +1,225 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * A policy for retrying requests that failed due to a transient transport
+ * error, e.g. a reset connection or a HTTP status code of <code>429</code>,
+ * <code>502</code>, <code>503</code> or <code>504</code>.
+ * <p>
+ * Retries are delayed using an exponential backoff with jitter. If the
+ * endpoint sends a <code>Retry-After</code> header, the requested delay is
+ * honored; if it exceeds the maximum backoff, the request is not retried.
+ * Only the HTTP exchange is retried: once the response has been handed to
+ * the parser, a failure is final.
+ * </p>
+ * <p>
+ * The number of retries is limited by a retry budget, which is shared by all
+ * clients using this policy instance. Every retry consumes one token of the
+ * budget and every successful request refills a fraction of a token, so
+ * retries cannot amplify the load on an endpoint that is failing
+ * persistently. This class is thread-safe.
+ * </p>
+ *
+ * @see SRUClientConfig.Builder#setRetryPolicy(SRURetryPolicy)
+ * @see SRUTransportException#isRetryable()
+ */
+public final class SRURetryPolicy {
+    /** default size of the retry budget, if not otherwise specified */
+    public static final int DEFAULT_BUDGET = 10;
+    /**
+     * default number of tokens added to the retry budget for every successful
+     * request, if not otherwise specified
+     */
+    public static final double DEFAULT_BUDGET_REFILL = 0.1;
+    private final int maxRetries;
+    private final int initialBackoff;
+    private final int maxBackoff;
+    private final int budget;
+    private final double budgetRefill;
+    private double tokens;
+
+
+    /**
+     * Constructor.
+     *
+     * @param maxRetries
+     *            the maximum number of retries per request
+     * @param initialBackoff
+     *            the delay before the first retry in milliseconds
+     * @param maxBackoff
+     *            the maximum delay between retries in milliseconds
+     * @param budget
+     *            the size of the retry budget
+     * @param budgetRefill
+     *            the number of tokens added to the retry budget for every
+     *            successful request
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRURetryPolicy(int maxRetries, int initialBackoff, int maxBackoff,
+            int budget, double budgetRefill) {
+        if (maxRetries < 1) {
+            throw new IllegalArgumentException("maxRetries < 1");
+        }
+        if (initialBackoff < 1) {
+            throw new IllegalArgumentException("initialBackoff < 1");
+        }
+        if (maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("maxBackoff < initialBackoff");
+        }
+        if (budget < 1) {
+            throw new IllegalArgumentException("budget < 1");
+        }
+        if ((budgetRefill <= 0) || (budgetRefill > 1)) {
+            throw new IllegalArgumentException(
+                    "budgetRefill must be within (0, 1]");
+        }
+        this.maxRetries     = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff     = maxBackoff;
+        this.budget         = budget;
+        this.budgetRefill   = budgetRefill;
+        this.tokens         = budget;
+    }
+
+
+    /**
+     * Constructor. Uses the {@link #DEFAULT_BUDGET} and
+     * {@link #DEFAULT_BUDGET_REFILL}.
+     *
+     * @param maxRetries
+     *            the maximum number of retries per request
+     * @param initialBackoff
+     *            the delay before the first retry in milliseconds
+     * @param maxBackoff
+     *            the maximum delay between retries in milliseconds
+     * @throws IllegalArgumentException
+     *             if any argument is invalid
+     */
+    public SRURetryPolicy(int maxRetries, int initialBackoff,
+            int maxBackoff) {
+        this(maxRetries, initialBackoff, maxBackoff,
+                DEFAULT_BUDGET, DEFAULT_BUDGET_REFILL);
+    }
+
+
+    /**
+     * Get the maximum number of retries per request.
+     *
+     * @return the maximum number of retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+
+    /**
+     * Get the delay before the first retry.
+     *
+     * @return the delay in milliseconds
+     */
+    public int getInitialBackoff() {
+        return initialBackoff;
+    }
+
+
+    /**
+     * Get the maximum delay between retries.
+     *
+     * @return the delay in milliseconds
+     */
+    public int getMaxBackoff() {
+        return maxBackoff;
+    }
+
+
+    /**
+     * Get the size of the retry budget.
+     *
+     * @return the size of the retry budget
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+
+    /**
+     * Get the number of tokens added to the retry budget for every successful
+     * request.
+     *
+     * @return the number of tokens
+     */
+    public double getBudgetRefill() {
+        return budgetRefill;
+    }
+
+
+    /**
+     * Get the number of retries, that are currently left in the retry budget.
+     *
+     * @return the number of retries
+     */
+    public synchronized int getRemainingBudget() {
+        return (int) tokens;
+    }
+
+
+    /**
+     * Compute the delay before the next retry and take a token from the retry
+     * budget.
+     *
+     * @param retry
+     *            the number of retries already performed for the request
+     * @param retryAfter
+     *            the delay requested by the endpoint in milliseconds or
+     *            <code>-1</code>
+     * @return the delay in milliseconds or <code>-1</code>, if the request
+     *         must not be retried
+     */
+    long acquireRetry(int retry, long retryAfter) {
+        if ((retry >= maxRetries) || (retryAfter > maxBackoff)) {
+            return -1;
+        }
+        synchronized (this) {
+            if (tokens < 1) {
+                return -1;
+            }
+            tokens -= 1;
+        }
+        if (retryAfter >= 0) {
+            return retryAfter;
+        }
+        final long backoff = Math.min(maxBackoff,
+                (long) initialBackoff << Math.min(retry, 30));
+        /* "equal jitter": keep at least half of the backoff */
+        return (backoff / 2) +
+                ThreadLocalRandom.current().nextLong((backoff / 2) + 1);
+    }
+
+
+    /**
+     * Refill the retry budget after a successful request.
+     */
+    synchronized void onSuccess() {
+        tokens = Math.min(budget, tokens + budgetRefill);
+    }
+
+} // class SRURetryPolicy
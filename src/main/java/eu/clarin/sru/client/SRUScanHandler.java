@@ -48,7 +48,8 @@ public interface SRUScanHandler {
      *
      * @param totalBytesTransferred
      *            the total number of bytes transferred while receiving the
-     *            response
+     *            response (at most {@link Integer#MAX_VALUE}) or
+     *            <code>-1</code>, if byte statistics are disabled
      * @param millisTotal
      *            the total time spend processing the request
      * @param millisNetwork
@@ -31,14 +31,15 @@ public final class SRUScanResponse extends SRUAbstractResponse<SRUScanRequest> {
     SRUScanResponse(SRUScanRequest request,
             List<SRUDiagnostic> diagnostics,
             List<SRUExtraResponseData> extraResponseData,
-            int totalBytesTransferred,
+            long totalBytesTransferred,
+            long totalBytesDecoded,
             long timeTotal,
             long timeQueued,
             long timeNetwork,
             long timeProcessing,
             List<SRUTerm> terms) {
         super(request, diagnostics, extraResponseData, totalBytesTransferred,
-                timeTotal, timeQueued, timeNetwork, timeProcessing);
+                totalBytesDecoded, timeTotal, timeQueued, timeNetwork, timeProcessing);
         this.terms = ((terms != null) && !terms.isEmpty())
                 ? Collections.unmodifiableList(terms)
                 : null;
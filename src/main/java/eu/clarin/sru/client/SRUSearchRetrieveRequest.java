@@ -53,6 +53,7 @@ public class SRUSearchRetrieveRequest extends SRUAbstractRequest {
     private SRURecordPacking recordPacking;
     private String recordSchema;
     private int resultSetTTL = -1;
+    private SRUProjection projection = SRUProjection.FULL;
 
 
     /**
@@ -311,12 +312,51 @@ public class SRUSearchRetrieveRequest extends SRUAbstractRequest {
     }
 
 
+    /**
+     * Get the projection of the response for this request.
+     *
+     * @return the projection of the response
+     * @see SRUProjection
+     */
+    public SRUProjection getProjection() {
+        return projection;
+    }
+
+
+    /**
+     * Set the projection of the response for this request, i.e. which parts
+     * of the response are needed by the client. Parts, that are not needed,
+     * are skipped by the parser. If only the number of records is needed,
+     * parsing stops as soon as it is known and the connection is closed
+     * without reading the rest of the response. The projection is not sent
+     * to the endpoint.
+     *
+     * @param projection
+     *            the projection of the response
+     * @see SRUProjection
+     */
+    public void setProjection(SRUProjection projection) {
+        if (projection == null) {
+            throw new NullPointerException("projection == null");
+        }
+        this.projection = projection;
+    }
+
+
     @Override
     public SRUOperation getOperation() {
         return SRUOperation.SEARCH_RETRIEVE;
     }
 
 
+    @Override
+    void appendKey(StringBuilder sb) {
+        if (projection != SRUProjection.FULL) {
+            sb.append('\n').append(projection);
+        }
+    }
+
+
     @Override
     void addParametersToURI(URIHelper uriHelper, SRUVersion version)
             throws SRUClientException {
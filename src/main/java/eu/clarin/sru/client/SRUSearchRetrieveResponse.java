@@ -36,7 +36,8 @@ public final class SRUSearchRetrieveResponse extends
     SRUSearchRetrieveResponse(SRUSearchRetrieveRequest request,
             List<SRUDiagnostic> diagnostics,
             List<SRUExtraResponseData> extraResponseData,
-            int totalBytesTransferred,
+            long totalBytesTransferred,
+            long totalBytesDecoded,
             long timeTotal,
             long timeQueued,
             long timeNetwork,
@@ -47,7 +48,7 @@ public final class SRUSearchRetrieveResponse extends
             List<SRURecord> records,
             int nextRecordPosition) {
         super(request, diagnostics, extraResponseData, totalBytesTransferred,
-                timeTotal, timeQueued, timeNetwork, timeParsing);
+                totalBytesDecoded, timeTotal, timeQueued, timeNetwork, timeParsing);
         this.numberOfRecords = numberOfRecords;
         this.resultSetId = resultSetId;
         this.resultSetIdleTime = resultSetIdleTime;
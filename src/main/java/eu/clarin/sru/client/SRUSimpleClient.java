@@ -21,29 +21,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.util.Date;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import javax.net.ssl.SSLException;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
-import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
-import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.config.SocketConfig;
-import org.apache.http.impl.NoConnectionReuseStrategy;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.protocol.HttpContext;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.utils.DateUtils;
+import org.codehaus.stax2.XMLInputFactory2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,7 +65,6 @@ import org.slf4j.LoggerFactory;
  * @see SRUDefaultHandlerAdapter
  */
 public class SRUSimpleClient {
-    private static final String USER_AGENT = "SRU-Client/1.0.0";
     /** default version the client will use, if not otherwise specified */
     private static final String SRU_DIAGNOSTIC_RECORD_SCHEMA =
             "info:srw/schema/1/diagnostics-v1.1";
@@ -78,16 +75,55 @@ public class SRUSimpleClient {
     private static final String RECORD_PACKING_UNPACKED = "unpacked";
     private static final String RECORD_ESCAPING_XML = "xml";
     private static final String RECORD_ESCAPING_STRING = "string";
+    private static final String[] RECORD_PACKING_TOKENS = {
+        RECORD_PACKING_PACKED, RECORD_PACKING_UNPACKED
+    };
+    private static final String[] RECORD_ESCAPING_TOKENS = {
+        RECORD_ESCAPING_XML, RECORD_ESCAPING_STRING
+    };
+    private static final String[] WHERE_IN_LIST_TOKENS = {
+        "first", "last", "only", "inner"
+    };
     private static final Logger logger =
             LoggerFactory.getLogger(SRUSimpleClient.class);
     private final SRUVersion defaultVersion;
+    private final SRURequestMethod defaultRequestMethod;
+    private final int defaultRequestTimeout;
     private final Map<String, SRURecordDataParser> parsers;
-    private final CloseableHttpClient httpClient;
-    private final HttpContext httpContext;
+    private final SRUTransport transport;
+    private final boolean contentCompression;
     private final SRURequestAuthenticator requestAuthenticator;
+    private final SRUClientEventDispatcher events;
+    private final SRURetryPolicy retryPolicy;
+    private final XMLInputFactory2 inputFactory;
+    private final ForkJoinPool recordParsingPool;
+    private final boolean byteStatistics;
     private final XmlStreamReaderProxy proxy = new XmlStreamReaderProxy();
     private final SRUExplainRecordDataParser explainRecordParser =
             new SRUExplainRecordDataParser();
+    /* timeout override for the next request */
+    private int timeout = -1;
+    /* abort handle for the next request */
+    private SRUAbortHandle nextAbortHandle;
+    /* the abort handle of the request currently processed */
+    private SRUAbortHandle abortHandle;
+    /* the parsing control of the request currently processed or null */
+    private SRUParsingControl control;
+    /* the deadline of the request currently processed or null */
+    private SRURequestDeadline deadline;
+    /* validators for a conditional next request */
+    private String conditionalETag;
+    private String conditionalLastModified;
+    /* validators and status of the last response */
+    private String responseETag;
+    private String responseLastModified;
+    private boolean notModified;
+    /* the last response was answered from a cache, not by the endpoint */
+    private boolean responseCached;
+    /* parsing of the current response stopped before its end */
+    private boolean parsingStopped;
+    /* the current response contained diagnostics */
+    private boolean diagnosticsReceived;
 
 
     /**
@@ -106,6 +142,11 @@ public class SRUSimpleClient {
             throw new NullPointerException("config == null");
         }
         this.defaultVersion = config.getDefaultVersion();
+        this.defaultRequestMethod = config.getDefaultRequestMethod();
+        this.defaultRequestTimeout = config.getRequestTimeout();
+        this.inputFactory = config.getParserSettings().getInputFactory();
+        this.recordParsingPool = config.getRecordParsingPool();
+        this.byteStatistics = config.isByteStatisticsEnabled();
 
         // Initialize parsers lookup table ...
         final List<SRURecordDataParser> list = config.getRecordDataParsers();
@@ -124,18 +165,36 @@ public class SRUSimpleClient {
                                 recordSchema);
             }
         }
-        final CloseableHttpClient client = config.getCustomizedHttpClient();
-        if (client != null) {
+        final List<SRUClientEventListener> listeners =
+                config.getEventListeners();
+        if ((listeners != null) && !listeners.isEmpty()) {
+            this.events = new SRUClientEventDispatcher(listeners);
+        } else {
+            this.events = null;
+        }
+        SRUTransport transport;
+        if (config.getTransport() != null) {
+            // use customized transport
+            transport = config.getTransport();
+            this.contentCompression = config.isContentCompressionEnabled();
+        } else if (config.getCustomizedHttpClient() != null) {
             // use customized http client
-            this.httpClient = client;
-            this.httpContext = config.getHttpClientContext();
+            transport = new SRUApacheHttpTransport(
+                    config.getCustomizedHttpClient(),
+                    config.getHttpClientContext());
+            this.contentCompression = false;
         } else {
             // create HTTP client
-            httpClient = createHttpClient(config.getConnectTimeout(),
-                    config.getSocketTimeout());
-            httpContext = null;
+            transport = new SRUApacheHttpTransport(config);
+            this.contentCompression = config.isContentCompressionEnabled();
         }
+        if (config.getDiskCache() != null) {
+            transport = new SRUDiskCacheTransport(config.getDiskCache(),
+                    transport);
+        }
+        this.transport = transport;
         this.requestAuthenticator = config.getRequestAuthenticator();
+        this.retryPolicy = config.getRetryPolicy();
     }
 
 
@@ -154,8 +213,8 @@ public class SRUSimpleClient {
      * @see SRUExplainRequest
      * @see SRUExplainHandler
      */
-    public void explain(SRUExplainRequest request, SRUExplainHandler handler)
-            throws SRUClientException {
+    public void explain(final SRUExplainRequest request,
+            final SRUExplainHandler handler) throws SRUClientException {
         if (request == null) {
             throw new NullPointerException("request == null");
         }
@@ -164,67 +223,26 @@ public class SRUSimpleClient {
         }
         logger.debug("performing explain request");
 
-        final long ts_start = System.nanoTime();
-
-        // create URI and perform request
-        final URI uri = request.makeURI(defaultVersion);
-        CloseableHttpResponse response = executeRequest(uri, request);
-        InputStream stream             = null;
-        SRUXMLStreamReader reader      = null;
-        try {
-            final HttpEntity entity = response.getEntity();
-            if (entity == null) {
-                throw new SRUClientException("cannot get entity");
+        doRequest(request, new ResponseProcessor() {
+            @Override
+            public void parse(SRUXMLStreamReader reader)
+                    throws SRUClientException {
+                parseExplainResponse(reader, request, handler);
             }
 
-            stream = entity.getContent();
-
-            final long ts_parsing = System.nanoTime();
-            reader = createReader(stream, true);
-            parseExplainResponse(reader, request, handler);
-            final long ts_end = System.nanoTime();
-
-            final long millisTotal =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_start);
-            final long millisNetwork =
-                    TimeUnit.NANOSECONDS.toMillis(ts_parsing - ts_start);
-            final long millisProcessing =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_parsing);
-            logger.debug("{} byte(s) in {} milli(s) " +
-                    "({} milli(s) network / {} milli(s) processing)",
-                    reader.getByteCount(), millisTotal, millisNetwork,
-                    millisProcessing);
-            handler.onRequestStatistics((int) reader.getByteCount(),
-                    millisTotal, millisNetwork, millisProcessing);
-        } catch (IllegalStateException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (IOException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (XMLStreamException e) {
-            throw new SRUClientException("error reading response", e);
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (XMLStreamException e) {
-                    /* IGNORE */
-                }
-            }
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                    /* IGNORE */
-                }
-            }
 
-            /* make sure to release allocated resources */
-            try {
-                response.close();
-            } catch (IOException e) {
-                /* IGNORE */
+            @Override
+            public void onRequestStatistics(long bytesTransferred,
+                    long bytesDecoded, long millisTotal, long millisNetwork,
+                    long millisProcessing) {
+                handler.onRequestStatistics(toInt(bytesTransferred),
+                        millisTotal, millisNetwork, millisProcessing);
+                if (handler instanceof SRUByteStatisticsHandler) {
+                    ((SRUByteStatisticsHandler) handler)
+                            .onByteStatistics(bytesTransferred, bytesDecoded);
+                }
             }
-        }
+        });
     }
 
 
@@ -243,7 +261,34 @@ public class SRUSimpleClient {
      * @see SRUScanRequest
      * @see SRUScanHandler
      */
-    public void scan(SRUScanRequest request, SRUScanHandler handler)
+    public void scan(final SRUScanRequest request,
+            final SRUScanHandler handler) throws SRUClientException {
+        scan(request, handler, null);
+    }
+
+
+    /**
+     * Perform a <em>scan</em> operation, that can be stopped early by the
+     * handler.
+     *
+     * @param request
+     *            an instance of a {@link SRUScanRequest} object
+     * @param handler
+     *            an instance of {@link SRUScanHandler} to receive callbacks
+     *            when processing the result of this request
+     * @param control
+     *            an instance of {@link SRUParsingControl} to stop parsing the
+     *            response or <code>null</code>
+     * @throws SRUClientException
+     *             if an unrecoverable error occurred
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     * @see SRUScanRequest
+     * @see SRUScanHandler
+     * @see SRUParsingControl
+     */
+    public void scan(final SRUScanRequest request,
+            final SRUScanHandler handler, final SRUParsingControl control)
             throws SRUClientException {
         if (request == null) {
             throw new NullPointerException("request == null");
@@ -254,66 +299,27 @@ public class SRUSimpleClient {
         logger.debug("performing scan request: scanClause = {}",
                 request.getScanClause());
 
-        final long ts_start = System.nanoTime();
-
-        // create URI and perform request
-        final URI uri = request.makeURI(defaultVersion);
-        CloseableHttpResponse response = executeRequest(uri, request);
-        InputStream stream             = null;
-        SRUXMLStreamReader reader      = null;
-        try {
-            final HttpEntity entity = response.getEntity();
-            if (entity == null) {
-                throw new SRUClientException("cannot get entity");
-            }
-            stream = entity.getContent();
-
-            final long ts_parsing = System.nanoTime();
-            reader = createReader(stream, true);
-            parseScanResponse(reader, request, handler);
-            final long ts_end = System.nanoTime();
-
-            final long millisTotal =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_start);
-            final long millisNetwork =
-                    TimeUnit.NANOSECONDS.toMillis(ts_parsing - ts_start);
-            final long millisProcessing =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_parsing);
-            logger.debug("{} byte(s) in {} milli(s) " +
-                    "({} milli(s) network / {} milli(s) processing)",
-                    reader.getByteCount(), millisTotal, millisNetwork,
-                    millisProcessing);
-            handler.onRequestStatistics((int) reader.getByteCount(),
-                    millisTotal, millisNetwork, millisProcessing);
-        } catch (IllegalStateException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (IOException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (XMLStreamException e) {
-            throw new SRUClientException("error reading response", e);
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (XMLStreamException e) {
-                    /* IGNORE */
-                }
-            }
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                    /* IGNORE */
-                }
+        this.control = control;
+        doRequest(request, new ResponseProcessor() {
+            @Override
+            public void parse(SRUXMLStreamReader reader)
+                    throws SRUClientException {
+                parseScanResponse(reader, request, handler);
             }
 
-            /* make sure to release allocated resources */
-            try {
-                response.close();
-            } catch (IOException e) {
-                /* IGNORE */
+
+            @Override
+            public void onRequestStatistics(long bytesTransferred,
+                    long bytesDecoded, long millisTotal, long millisNetwork,
+                    long millisProcessing) {
+                handler.onRequestStatistics(toInt(bytesTransferred),
+                        millisTotal, millisNetwork, millisProcessing);
+                if (handler instanceof SRUByteStatisticsHandler) {
+                    ((SRUByteStatisticsHandler) handler)
+                            .onByteStatistics(bytesTransferred, bytesDecoded);
+                }
             }
-        }
+        });
     }
 
 
@@ -332,8 +338,35 @@ public class SRUSimpleClient {
      * @see SRUSearchRetrieveRequest
      * @see SRUSearchRetrieveHandler
      */
-    public void searchRetrieve(SRUSearchRetrieveRequest request,
-            SRUSearchRetrieveHandler handler) throws SRUClientException {
+    public void searchRetrieve(final SRUSearchRetrieveRequest request,
+            final SRUSearchRetrieveHandler handler) throws SRUClientException {
+        searchRetrieve(request, handler, null);
+    }
+
+
+    /**
+     * Perform a <em>searchRetrieve</em> operation, that can be stopped early
+     * by the handler, e.g. if it has received enough records.
+     *
+     * @param request
+     *            an instance of a {@link SRUSearchRetrieveRequest} object
+     * @param handler
+     *            an instance of {@link SRUSearchRetrieveHandler} to receive
+     *            callbacks when processing the result of this request
+     * @param control
+     *            an instance of {@link SRUParsingControl} to stop parsing the
+     *            response or <code>null</code>
+     * @throws SRUClientException
+     *             if an unrecoverable error occurred
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     * @see SRUSearchRetrieveRequest
+     * @see SRUSearchRetrieveHandler
+     * @see SRUParsingControl
+     */
+    public void searchRetrieve(final SRUSearchRetrieveRequest request,
+            final SRUSearchRetrieveHandler handler,
+            final SRUParsingControl control) throws SRUClientException {
         if (request == null) {
             throw new NullPointerException("request == null");
         }
@@ -343,77 +376,345 @@ public class SRUSimpleClient {
         logger.debug("performing searchRetrieve request: query = {}",
                 request.getQuery());
 
-        final long ts_start = System.nanoTime();
+        this.control = control;
+        doRequest(request, new ResponseProcessor() {
+            @Override
+            public void parse(SRUXMLStreamReader reader)
+                    throws SRUClientException {
+                parseSearchRetrieveResponse(reader, request, handler);
+            }
+
+
+            @Override
+            public void onRequestStatistics(long bytesTransferred,
+                    long bytesDecoded, long millisTotal, long millisNetwork,
+                    long millisProcessing) {
+                handler.onRequestStatistics(toInt(bytesTransferred),
+                        millisTotal, millisNetwork, millisProcessing);
+                if (handler instanceof SRUByteStatisticsHandler) {
+                    ((SRUByteStatisticsHandler) handler)
+                            .onByteStatistics(bytesTransferred, bytesDecoded);
+                }
+            }
+        });
+    }
+
 
-        // create URI and perform request
-        final URI uri = request.makeURI(defaultVersion);
-        CloseableHttpResponse response = executeRequest(uri, request);
-        InputStream stream             = null;
-        SRUXMLStreamReader reader      = null;
+    private void doRequest(final SRUAbstractRequest request,
+            final ResponseProcessor processor) throws SRUClientException {
+        final long ts_start = System.nanoTime();
+        if (events != null) {
+            events.onRequestStart(request);
+        }
+        abortHandle = (nextAbortHandle != null)
+                ? nextAbortHandle : new SRUAbortHandle();
+        nextAbortHandle = null;
+        responseETag = null;
+        responseLastModified = null;
+        notModified = false;
+        responseCached = false;
+        parsingStopped = false;
+        diagnosticsReceived = false;
+        final int requestTimeout = (request.getRequestTimeout() != -1)
+                ? request.getRequestTimeout()
+                : defaultRequestTimeout;
+        if (requestTimeout > 0) {
+            deadline = SRURequestDeadline.start(requestTimeout, abortHandle);
+        }
         try {
-            final HttpEntity entity = response.getEntity();
-            if (entity == null) {
-                throw new SRUClientException("cannot get entity");
+            // create URI and perform request
+            final URI uri = request.makeURI(defaultVersion,
+                    defaultRequestMethod);
+            if (events != null) {
+                events.onRequestURI(request, uri);
             }
+            SRUTransportResponse response = executeRequest(uri, request);
+            InputStream stream            = null;
+            SRUXMLStreamReader reader     = null;
+            responseCached = (response instanceof SRUCachedTransportResponse);
+            try {
+                responseETag = response.getHeader(HttpHeaders.ETAG);
+                responseLastModified =
+                        response.getHeader(HttpHeaders.LAST_MODIFIED);
+                if (response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                    /* nothing to parse, the caller reuses its cached copy */
+                    notModified = true;
+                    final long millisTotal = TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - ts_start);
+                    logger.debug("response not modified ({} milli(s))",
+                            millisTotal);
+                    processor.onRequestStatistics(0, 0, millisTotal,
+                            millisTotal, 0);
+                    if (events != null) {
+                        events.onRequestComplete(request, 0, 0, millisTotal,
+                                millisTotal, 0);
+                    }
+                    return;
+                }
+                stream = response.getBody();
+                if (stream == null) {
+                    throw new SRUClientException("cannot get entity");
+                }
 
-            stream = entity.getContent();
-
-            final long ts_parsing = System.nanoTime();
-            reader = createReader(stream, true);
-            parseSearchRetrieveResponse(reader, request, handler);
-            final long ts_end = System.nanoTime();
-
-            final long millisTotal =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_start);
-            final long millisNetwork =
-                    TimeUnit.NANOSECONDS.toMillis(ts_parsing - ts_start);
-            final long millisProcessing =
-                    TimeUnit.NANOSECONDS.toMillis(ts_end - ts_parsing);
-            logger.debug("{} byte(s) in {} milli(s) " +
-                    "({} milli(s) network / {} milli(s) processing)",
-                    reader.getByteCount(), millisTotal, millisNetwork,
-                    millisProcessing);
-            handler.onRequestStatistics((int) reader.getByteCount(),
-                    millisTotal, millisNetwork, millisProcessing);
-        } catch (IllegalStateException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (IOException e) {
-            throw new SRUClientException("error reading response", e);
-        } catch (XMLStreamException e) {
-            throw new SRUClientException("error reading response", e);
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (XMLStreamException e) {
-                    /* IGNORE */
+                /*
+                 * count the bytes of the response body as received from the
+                 * transport and, if the body is encoded, the decoded bytes
+                 * separately. Without byte statistics, the body is passed to
+                 * the parser as is.
+                 */
+                SRUCountingInputStream wire    = null;
+                SRUCountingInputStream decoded = null;
+                if (byteStatistics) {
+                    wire = new SRUCountingInputStream(stream);
+                    stream = wire;
                 }
-            }
-            if (stream != null) {
+                final String encoding =
+                        response.getHeader(HttpHeaders.CONTENT_ENCODING);
+                if (encoding != null) {
+                    stream = decodeContent(stream, encoding);
+                    if (byteStatistics && (stream != wire)) {
+                        decoded = new SRUCountingInputStream(stream);
+                        stream = decoded;
+                    }
+                }
+
+                final long ts_parsing = System.nanoTime();
+                if (events != null) {
+                    events.onParseStart(request);
+                }
+                reader = createReader(stream);
+                processor.parse(reader);
+                if (!parsingStopped &&
+                        (response instanceof SRUParseCompletionAware)) {
+                    ((SRUParseCompletionAware) response)
+                            .onParseComplete(diagnosticsReceived);
+                }
+                final long ts_end = System.nanoTime();
+                if (events != null) {
+                    events.onParseEnd(request);
+                }
+
+                final long millisTotal =
+                        TimeUnit.NANOSECONDS.toMillis(ts_end - ts_start);
+                final long millisNetwork =
+                        TimeUnit.NANOSECONDS.toMillis(ts_parsing - ts_start);
+                final long millisProcessing =
+                        TimeUnit.NANOSECONDS.toMillis(ts_end - ts_parsing);
+                final long bytesTransferred =
+                        (wire != null) ? wire.getCount() : -1;
+                final long bytesDecoded =
+                        (decoded != null) ? decoded.getCount() : bytesTransferred;
+                logger.debug("{} byte(s) ({} byte(s) decoded) in {} milli(s) " +
+                        "({} milli(s) network / {} milli(s) processing)",
+                        bytesTransferred, bytesDecoded, millisTotal,
+                        millisNetwork, millisProcessing);
+                processor.onRequestStatistics(bytesTransferred, bytesDecoded,
+                        millisTotal, millisNetwork, millisProcessing);
+                if (events != null) {
+                    events.onRequestComplete(request, bytesTransferred,
+                            bytesDecoded, millisTotal, millisNetwork,
+                            millisProcessing);
+                }
+            } catch (IllegalStateException e) {
+                throw new SRUClientException("error reading response", e);
+            } catch (IOException e) {
+                throw new SRUClientException("error reading response", e);
+            } catch (XMLStreamException e) {
+                throw new SRUClientException("error reading response", e);
+            } finally {
+                /*
+                 * if parsing stopped early, drop the connection instead of
+                 * reading the rest of the response
+                 */
+                if (parsingStopped) {
+                    abortHandle.discard();
+                }
+                if (reader != null) {
+                    try {
+                        reader.close();
+                    } catch (XMLStreamException e) {
+                        /* IGNORE */
+                    }
+                }
+                if (stream != null) {
+                    try {
+                        stream.close();
+                    } catch (IOException e) {
+                        /* IGNORE */
+                    }
+                }
+
+                /* make sure to release allocated resources */
                 try {
-                    stream.close();
+                    response.close();
                 } catch (IOException e) {
                     /* IGNORE */
                 }
             }
+        } catch (SRUClientException e) {
+            SRUClientException error = e;
+            /*
+             * if the deadline expired, the request has been aborted and the
+             * error is most likely caused by the abort
+             */
+            if ((deadline != null) && deadline.isExpired() &&
+                    !(e instanceof SRURequestTimeoutException)) {
+                error = new SRURequestTimeoutException("request deadline of " +
+                        deadline.getTimeout() + " milli(s) exceeded",
+                        deadline.getTimeout(), e);
+            }
+            if (events != null) {
+                events.onRequestFailed(request, error);
+            }
+            throw error;
+        } finally {
+            if (deadline != null) {
+                deadline.cancel();
+                deadline = null;
+            }
+            abortHandle.detach();
+            abortHandle = null;
+            control = null;
+            timeout = -1;
+            conditionalETag = null;
+            conditionalLastModified = null;
+        }
+    }
 
-            /* make sure to release allocated resources */
+
+    private void checkDeadline() throws SRURequestTimeoutException {
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+
+    private boolean isStopRequested() {
+        if ((control != null) && control.isStopped()) {
+            logger.debug("handler requested to stop parsing");
+            parsingStopped = true;
+            return true;
+        }
+        return false;
+    }
+
+
+    /*
+     * Override connect and socket timeout for the next request. Only
+     * supported by the default transport, if no customized HTTP client is
+     * used.
+     */
+    void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+
+    /*
+     * Use the given handle for aborting the next request from another thread.
+     */
+    void setAbortHandle(SRUAbortHandle handle) {
+        this.nextAbortHandle = handle;
+    }
+
+
+    /*
+     * Make the next request conditional on the given validators. If the
+     * endpoint answers with "304 Not Modified", the response is not parsed
+     * and isNotModified() returns true.
+     */
+    void setConditionalRequest(String etag, String lastModified) {
+        this.conditionalETag = etag;
+        this.conditionalLastModified = lastModified;
+    }
+
+
+    boolean isNotModified() {
+        return notModified;
+    }
+
+
+    /*
+     * Returns true, if the last response was answered from a cache of the
+     * transport, i.e. no request has been sent to the endpoint.
+     */
+    boolean isResponseCached() {
+        return responseCached;
+    }
+
+
+    String getResponseETag() {
+        return responseETag;
+    }
+
+
+    String getResponseLastModified() {
+        return responseLastModified;
+    }
+
+
+    private SRUTransportResponse executeRequest(URI requestUri,
+            SRUAbstractRequest sruRequest) throws SRUClientException {
+        int retry = 0;
+        for (;;) {
             try {
-                response.close();
-            } catch (IOException e) {
-                /* IGNORE */
+                final SRUTransportResponse response =
+                        executeRequestOnce(requestUri, sruRequest);
+                if (retryPolicy != null) {
+                    retryPolicy.onSuccess();
+                }
+                return response;
+            } catch (SRUTransportException e) {
+                if ((retryPolicy == null) || !e.isRetryable() ||
+                        abortHandle.isAborted()) {
+                    throw e;
+                }
+                final long delay =
+                        retryPolicy.acquireRetry(retry, e.getRetryAfter());
+                if ((delay < 0) ||
+                        ((deadline != null) &&
+                                (delay >= deadline.getRemaining()))) {
+                    throw e;
+                }
+                retry++;
+                logger.debug("transient error ({}), retry #{} in {} milli(s)",
+                        e.getMessage(), retry, delay);
+                if (events != null) {
+                    events.onRequestRetry(sruRequest, retry, delay, e);
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SRUClientException(
+                            "interrupted while waiting for retry", ex);
+                }
             }
         }
     }
 
 
-    private CloseableHttpResponse executeRequest(URI requestUri,
+    private SRUTransportResponse executeRequestOnce(URI requestUri,
             SRUAbstractRequest sruRequest) throws SRUClientException {
-        CloseableHttpResponse response = null;
-        boolean forceClose             = true;
+        SRUTransportResponse response = null;
+        boolean forceClose            = true;
         try {
             try {
-                HttpGet request = new HttpGet(requestUri);
+                final SRUTransportRequest request = new SRUTransportRequest(
+                        sruRequest, requestUri, timeout, abortHandle, events);
+                if (contentCompression) {
+                    request.addHeader(HttpHeaders.ACCEPT_ENCODING,
+                            "gzip, deflate");
+                }
+                final boolean conditional = (conditionalETag != null) ||
+                        (conditionalLastModified != null);
+                if (conditionalETag != null) {
+                    request.addHeader(HttpHeaders.IF_NONE_MATCH,
+                            conditionalETag);
+                }
+                if (conditionalLastModified != null) {
+                    request.addHeader(HttpHeaders.IF_MODIFIED_SINCE,
+                            conditionalLastModified);
+                }
                 if (requestAuthenticator != null && sruRequest.isSendAuthentication()) {
                     String value = requestAuthenticator.createAuthenticationHeaderValue(
                             sruRequest.getOperation(),
@@ -429,32 +730,53 @@ public class SRUSimpleClient {
                         }
                     }
                 }
-                logger.debug("submitting HTTP request: {}", requestUri.toString());
-                response = httpClient.execute(request, httpContext);
-                StatusLine status = response.getStatusLine();
-                if (status.getStatusCode() != HttpStatus.SC_OK) {
-                    if (status.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                        throw new SRUClientException("not found: " + requestUri);
+                logger.debug("submitting HTTP {} request: {}",
+                        request.getMethod(), requestUri);
+                response = transport.execute(request);
+                final int statusCode = response.getStatusCode();
+                if (events != null) {
+                    events.onResponseHeaders(sruRequest, statusCode,
+                            response.getHeaders());
+                }
+                if ((statusCode != HttpStatus.SC_OK) &&
+                        !(conditional &&
+                                (statusCode == HttpStatus.SC_NOT_MODIFIED))) {
+                    if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                        throw new SRUTransportException(
+                                "not found: " + requestUri, statusCode,
+                                false, -1, null);
                     } else {
-                        throw new SRUClientException("unexpected status: " +
-                                status.getStatusCode());
+                        throw new SRUTransportException(
+                                "unexpected status: " + statusCode,
+                                statusCode, isRetryableStatus(statusCode),
+                                parseRetryAfter(response.getHeader(
+                                        HttpHeaders.RETRY_AFTER)),
+                                null);
                     }
                 }
                 forceClose = false;
                 return response;
             } catch (ClientProtocolException e) {
-                throw new SRUClientException("client protocol exception", e);
+                throw new SRUTransportException("client protocol exception",
+                        -1, false, -1, e);
             } catch (UnknownHostException e) {
-                throw new SRUClientException(
-                        "unknown host: " + requestUri.getHost(), e);
+                throw new SRUTransportException(
+                        "unknown host: " + requestUri.getHost(),
+                        -1, false, -1, e);
             } catch (IOException e) {
                 String msg = null;
                 if ((e.getMessage() != null) && !e.getMessage().isEmpty()) {
                     msg = e.getMessage();
                 }
-                throw new SRUClientException(msg != null
+                /*
+                 * aborted requests and TLS errors will not go away by
+                 * retrying the request
+                 */
+                final boolean retryable = !(abortHandle.isAborted() ||
+                        (e instanceof SSLException));
+                throw new SRUTransportException(msg != null
                         ? msg
-                        : "input/output error", e);
+                        : "input/output error", -1, retryable, -1, e);
             }
         } catch (SRUClientException e) {
             /*
@@ -473,6 +795,69 @@ public class SRUSimpleClient {
     }
 
 
+    private static InputStream decodeContent(InputStream stream,
+            String encoding) throws IOException, SRUClientException {
+        final String e = encoding.trim().toLowerCase(Locale.ENGLISH);
+        if (e.isEmpty() || "identity".equals(e)) {
+            return stream;
+        } else if ("gzip".equals(e) || "x-gzip".equals(e)) {
+            return new GZIPInputStream(stream, 8192);
+        } else if ("deflate".equals(e)) {
+            /* handles zlib wrapped and raw deflate streams */
+            return new DeflateInputStream(stream);
+        } else {
+            throw new SRUClientException(
+                    "unsupported content encoding: " + encoding);
+        }
+    }
+
+
+    /*
+     * the legacy handler interfaces receive the number of bytes as int
+     */
+    private static int toInt(long bytes) {
+        return (bytes > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) bytes;
+    }
+
+
+    private static boolean isRetryableStatus(int statusCode) {
+        switch (statusCode) {
+        case HttpStatus.SC_REQUEST_TIMEOUT:
+            /* FALL-THROUGH */
+        case 429: /* Too Many Requests */
+            /* FALL-THROUGH */
+        case HttpStatus.SC_BAD_GATEWAY:
+            /* FALL-THROUGH */
+        case HttpStatus.SC_SERVICE_UNAVAILABLE:
+            /* FALL-THROUGH */
+        case HttpStatus.SC_GATEWAY_TIMEOUT:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+
+    private static long parseRetryAfter(String header) {
+        if (header == null) {
+            return -1;
+        }
+        final String value = header.trim();
+        try {
+            final long seconds = Long.parseLong(value);
+            return (seconds >= 0) ? TimeUnit.SECONDS.toMillis(seconds) : -1;
+        } catch (NumberFormatException e) {
+            /* not delta-seconds, so it must be a HTTP-date */
+        }
+        final Date date = DateUtils.parseDate(value);
+        if (date == null) {
+            logger.debug("ignoring invalid Retry-After header: {}", value);
+            return -1;
+        }
+        return Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+
     private void parseExplainResponse(final SRUXMLStreamReader reader,
             final SRUExplainRequest request, final SRUExplainHandler handler)
             throws SRUClientException {
@@ -511,8 +896,8 @@ public class SRUSimpleClient {
                     request.getRequestedVersion());
 
             // explainResponse/record
-            reader.readStart(ns.sruNS(), "record", true);
             if (parseRecordData) {
+                reader.readStart(ns.sruNS(), "record", true);
                 handler.onStartRecords(-1, null, -1);
 
                 /*
@@ -564,7 +949,7 @@ public class SRUSimpleClient {
                     final String data = reader.readString(true);
                     InputStream in = new ByteArrayInputStream(data.getBytes());
                     // FIXME: namespace context?
-                    recordReader = createReader(in, false);
+                    recordReader = createReader(in);
                 } else {
                     recordReader = reader;
                 }
@@ -605,6 +990,9 @@ public class SRUSimpleClient {
 
                 // notify handler
                 handler.onRecord(null, -1, recordData);
+                if (events != null) {
+                    events.onRecordParsed(request, null, -1);
+                }
 
                 if (reader.readStart(ns.sruNS(), "extraRecordData", false)) {
                     reader.consumeWhitespace();
@@ -629,18 +1017,16 @@ public class SRUSimpleClient {
                  * do not really parse record and skip everything
                  * until <record> end tag
                  */
-                reader.readEnd(ns.sruNS(), "record", true);
+                reader.skipElement(ns.sruNS(), "record", true);
             }
 
             // explainResponse/echoedExplainRequest
-            if (reader.readStart(ns.sruNS(), "echoedExplainRequest", false)) {
-                reader.readEnd(ns.sruNS(), "echoedExplainRequest", true);
-            }
+            reader.skipElement(ns.sruNS(), "echoedExplainRequest", false);
 
             /*
              * common error: echoedExplainRequest in default namespace
              */
-            if (reader.readStart("", "echoedExplainRequest", false)) {
+            if (reader.peekStart("", "echoedExplainRequest")) {
                 logger.error("Element 'echoedExplainRequest' must be in SRU " +
                         "namespace, but endpoint put it into default namespace");
                 if (strictMode) {
@@ -648,13 +1034,14 @@ public class SRUSimpleClient {
                             "'echoedExplainRequest' must be in SRU namespace,"+
                             " but endpoint put it into default namespace");
                 }
-                reader.readEnd("", "echoedExplainRequest", true);
+                reader.skipElement("", "echoedExplainRequest", true);
             }
 
             // explainResponse/diagnostics
             final List<SRUDiagnostic> diagnostics =
                     parseDiagnostics(reader, ns, ns.scanNS(), strictMode);
             if (diagnostics != null) {
+                diagnosticsReceived = true;
                 handler.onDiagnostics(diagnostics);
             }
 
@@ -756,10 +1143,15 @@ public class SRUSimpleClient {
                 if (reader.readStart(ns.scanNS(), "terms", false)) {
                     boolean first = true;
                     while (reader.readStart(ns.scanNS(), "term", first)) {
+                        checkDeadline();
                         if (first) {
                             first = false;
                             handler.onStartTerms();
                         }
+                        if (isStopRequested()) {
+                            handler.onFinishTerms();
+                            return;
+                        }
 
                         // scanResponse/terms/value
                         String value =
@@ -774,22 +1166,27 @@ public class SRUSimpleClient {
                                 "displayTerm", false);
 
                         // scanResponse/terms/whereInList
-                        String s = reader.readContent(ns.scanNS(),
-                                "whereInList", false);
                         SRUWhereInList whereInList = null;
-                        if (s != null) {
-                            if ("first".equals(s)) {
-                                whereInList = SRUWhereInList.FIRST;
-                            } else if ("last".equals(s)) {
-                                whereInList = SRUWhereInList.LAST;
-                            } else if ("only".equals(s)) {
-                                whereInList = SRUWhereInList.ONLY;
-                            } else if ("inner".equals(s)) {
-                                whereInList = SRUWhereInList.INNER;
-                            } else {
-                                throw new SRUClientException(
-                                        "invalid value for 'whereInList': " + s);
-                            }
+                        switch (reader.readContent(ns.scanNS(),
+                                "whereInList", false, WHERE_IN_LIST_TOKENS)) {
+                        case 0:
+                            whereInList = SRUWhereInList.FIRST;
+                            break;
+                        case 1:
+                            whereInList = SRUWhereInList.LAST;
+                            break;
+                        case 2:
+                            whereInList = SRUWhereInList.ONLY;
+                            break;
+                        case 3:
+                            whereInList = SRUWhereInList.INNER;
+                            break;
+                        case SRUXMLStreamReader.TOKEN_MISSING:
+                            break;
+                        default:
+                            throw new SRUClientException(
+                                    "invalid value for 'whereInList': " +
+                                            reader.getLastContent());
                         }
                         logger.debug("value = {}, numberOfRecords = {}, " +
                                 "displayTerm = {}, whereInList = {}", value,
@@ -819,25 +1216,24 @@ public class SRUSimpleClient {
                 }
 
                 // scanResponse/echoedScanRequest
-                if (reader.readStart(ns.scanNS(), "echoedScanRequest", false)) {
-                    reader.readEnd(ns.scanNS(), "echoedScanRequest", true);
-                }
+                reader.skipElement(ns.scanNS(), "echoedScanRequest", false);
 
                 /*
                  * common error: echoedScanRequest in default namespace
                  */
-                if (reader.readStart("", "echoedScanRequest", false)) {
+                if (reader.peekStart("", "echoedScanRequest")) {
                     logger.error("Element 'echoedScanRequest' must be in SRU namespace, but endpoint put it into default namespace");
                     if (strictMode) {
                         throw new SRUClientException("Element 'echoedScanRequest' must be in SRU namespace, but endpoint put it into default namespace");
                     }
-                    reader.readEnd("", "echoedScanRequest", true);
+                    reader.skipElement("", "echoedScanRequest", true);
                 }
 
                 // scanResponse/diagnostics
                 final List<SRUDiagnostic> diagnostics =
                         parseDiagnostics(reader, ns, ns.scanNS(), strictMode);
                 if (diagnostics != null) {
+                    diagnosticsReceived = true;
                     handler.onDiagnostics(diagnostics);
                 }
 
@@ -867,6 +1263,7 @@ public class SRUSimpleClient {
     private void parseSearchRetrieveResponse(final SRUXMLStreamReader reader,
             final SRUSearchRetrieveRequest request,
             final SRUSearchRetrieveHandler handler) throws SRUClientException {
+        SRURecordDataPipeline pipeline = null;
         try {
             /* detect response namespaces */
             final SRUNamespaces ns =
@@ -924,6 +1321,10 @@ public class SRUSimpleClient {
                 }, false);
             } else {
                 final boolean strictMode = request.isStrictMode();
+                final SRUProjection projection = request.getProjection();
+                final boolean skipExtraData =
+                        (projection == SRUProjection.NO_EXTRA_DATA) ||
+                        (projection == SRUProjection.IDENTIFIERS);
 
                 logger.debug("parsing 'searchRetrieve' response (mode = {})",
                         (strictMode ? "strict" : "non-strict"));
@@ -952,6 +1353,21 @@ public class SRUSimpleClient {
                         "resultSetIdleTime = {}", numberOfRecords,
                         resultSetId, resultSetIdleTime);
 
+                /*
+                 * if only the number of records is needed, stop here. An
+                 * empty result is parsed completely to report diagnostics.
+                 */
+                if ((projection == SRUProjection.COUNT) &&
+                        (numberOfRecords > 0)) {
+                    logger.debug("only number of records requested, " +
+                            "stop parsing");
+                    handler.onStartRecords(numberOfRecords, resultSetId,
+                            resultSetIdleTime);
+                    handler.onFinishRecords(-1);
+                    parsingStopped = true;
+                    return;
+                }
+
                 // searchRetrieveResponse/results
                 if (numberOfRecords > 0) {
                     /*
@@ -960,49 +1376,70 @@ public class SRUSimpleClient {
                      * supported
                      */
                     int recordCount = 0;
+                    final RecordEnvelope envelope =
+                            new RecordEnvelope(ns, version, strictMode);
+                    if ((recordParsingPool != null) &&
+                            (projection != SRUProjection.IDENTIFIERS)) {
+                        pipeline = new SRURecordDataPipeline(recordParsingPool,
+                                inputFactory);
+                    }
                     if (reader.readStart(ns.sruNS(), "records", false)) {
                         // searchRetrieveResponse/records/record
                         boolean first = true;
                         while (reader.readStart(ns.sruNS(), "record", first)) {
+                            checkDeadline();
                             if (first) {
                                 first = false;
                                 handler.onStartRecords(numberOfRecords,
                                         resultSetId, resultSetIdleTime);
                             }
+                            if (isStopRequested()) {
+                                handler.onFinishRecords(-1);
+                                return;
+                            }
 
-                            /*
-                             * common error: recordEscaping / recordPacking
-                             * (SRU 1.2) in wrong order
-                             */
-                            SRURecordXmlEscaping recordXmlEscaping = null;
-                            if (!strictMode &&
-                                    reader.peekStart(ns.sruNS(), "recordPacking")) {
-                                recordXmlEscaping =
-                                        parseRecordXmlEscaping(reader, ns,
-                                                version, false);
-                                if (recordXmlEscaping != null) {
-                                    logger.error("element <recordPacking> " +
-                                            "must appear after element " +
-                                            "<recordSchema> within " +
-                                            "element <record>");
+                            String schema;
+                            SRURecordPacking recordPacking;
+                            SRURecordXmlEscaping recordXmlEscaping;
+                            if (envelope.readHead(reader)) {
+                                schema            = envelope.schema;
+                                recordPacking     = envelope.recordPacking;
+                                recordXmlEscaping = envelope.recordXmlEscaping;
+                            } else {
+                                /*
+                                 * common error: recordEscaping / recordPacking
+                                 * (SRU 1.2) in wrong order
+                                 */
+                                recordXmlEscaping = null;
+                                if (!strictMode &&
+                                        reader.peekStart(ns.sruNS(), "recordPacking")) {
+                                    recordXmlEscaping =
+                                            parseRecordXmlEscaping(reader, ns,
+                                                    version, false);
+                                    if (recordXmlEscaping != null) {
+                                        logger.error("element <recordPacking> " +
+                                                "must appear after element " +
+                                                "<recordSchema> within " +
+                                                "element <record>");
+                                    }
                                 }
-                            }
 
-                            String schema = reader.readContent(ns.sruNS(),
-                                    "recordSchema", true);
+                                schema = reader.readContent(ns.sruNS(),
+                                        "recordSchema", true);
 
-                            // (SRU 2.0) recordPacking (optional)
-                            // XXX: what to do with it?
-                            SRURecordPacking recordPacking = null;
-                            if (version.isVersion(SRUVersion.VERSION_2_0)) {
-                                recordPacking = parseRecordPacking(reader,
-                                        ns.sruNS(), strictMode);
-                            }
+                                // (SRU 2.0) recordPacking (optional)
+                                // XXX: what to do with it?
+                                recordPacking = null;
+                                if (version.isVersion(SRUVersion.VERSION_2_0)) {
+                                    recordPacking = parseRecordPacking(reader,
+                                            ns.sruNS(), strictMode);
+                                }
 
-                            if (recordXmlEscaping == null) {
-                                recordXmlEscaping =
-                                        parseRecordXmlEscaping(reader, ns,
-                                                version, strictMode);
+                                if (recordXmlEscaping == null) {
+                                    recordXmlEscaping =
+                                            parseRecordXmlEscaping(reader, ns,
+                                                    version, strictMode);
+                                }
                             }
 
                             logger.debug("schema = {}, escaping = {}, " +
@@ -1032,88 +1469,88 @@ public class SRUSimpleClient {
                             }
 
                             // searchRetrieveResponse/record/recordData
-                            reader.readStart(ns.sruNS(), "recordData", true);
-                            reader.consumeWhitespace();
-
                             SRURecordData recordData = null;
                             SRUDiagnostic surrogate = null;
-                            SRUXMLStreamReader recordReader = null;
-
-                            if (recordXmlEscaping == SRURecordXmlEscaping.STRING) {
-                                /*
-                                 * read content into temporary buffer and then
-                                 * use a new XML reader to parse record data
-                                 */
-                                final String data = reader.readString(true);
-                                InputStream in = new ByteArrayInputStream(
-                                        data.getBytes());
-                                // FIXME: namespace context?
-                                recordReader = createReader(in, false);
+                            ForkJoinTask<SRURecordData> task = null;
+                            if (projection == SRUProjection.IDENTIFIERS) {
+                                reader.skipElement(ns.sruNS(), "recordData",
+                                        true);
+                                recordData = new SRUSkippedRecordData(schema);
                             } else {
-                                recordReader = reader;
-                            }
+                                reader.readStart(ns.sruNS(), "recordData", true);
+                                reader.consumeWhitespace();
 
-                            if (SRU_DIAGNOSTIC_RECORD_SCHEMA.equals(schema)) {
-                                surrogate = parseDiagnostic(recordReader, ns,
-                                        true, strictMode);
-                            } else {
-                                SRURecordDataParser parser = findParser(schema);
-                                if (parser != null) {
-                                    try {
-                                        proxy.reset(recordReader);
-                                        recordData = parser.parse(proxy);
-                                    } catch (XMLStreamException e) {
-                                        throw new SRUClientException(
-                                                "error parsing record", e);
-                                    } finally {
+                                SRUXMLStreamReader recordReader = null;
+
+                                if (recordXmlEscaping == SRURecordXmlEscaping.STRING) {
+                                    /*
+                                     * read content into temporary buffer and then
+                                     * use a new XML reader to parse record data
+                                     */
+                                    final String data = reader.readString(true);
+                                    InputStream in = new ByteArrayInputStream(
+                                            data.getBytes());
+                                    // FIXME: namespace context?
+                                    recordReader = createReader(in);
+                                } else {
+                                    recordReader = reader;
+                                }
+
+                                if (SRU_DIAGNOSTIC_RECORD_SCHEMA.equals(schema)) {
+                                    surrogate = parseDiagnostic(recordReader, ns,
+                                            true, strictMode);
+                                } else {
+                                    SRURecordDataParser parser = findParser(schema);
+                                    if ((parser != null) && (pipeline != null) &&
+                                            (recordReader == reader) &&
+                                            reader.isStartElement()) {
+                                        // parse record data in pool
+                                        task = pipeline.submit(parser, reader);
+                                    } else if (parser != null) {
+                                        try {
+                                            proxy.reset(recordReader);
+                                            recordData = parser.parse(proxy);
+                                        } catch (XMLStreamException e) {
+                                            throw new SRUClientException(
+                                                    "error parsing record", e);
+                                        } finally {
+                                            /*
+                                             * make sure, we deallocate the record
+                                             * reader in case of string record
+                                             * packing
+                                             */
+                                            if (recordXmlEscaping == SRURecordXmlEscaping.STRING) {
+                                                recordReader.closeCompletly();
+                                            }
+                                        }
+                                        if (recordData == null) {
+                                            surrogate =
+                                                    makeParserNullDiagnostic(schema);
+                                        }
+                                    } else {
                                         /*
-                                         * make sure, we deallocate the record
-                                         * reader in case of string record
-                                         * packing
+                                         * no record parser found, inject a
+                                         * surrogate diagnostic
                                          */
-                                        if (recordXmlEscaping == SRURecordXmlEscaping.STRING) {
-                                            recordReader.closeCompletly();
-                                        }
-                                    }
-                                    if (recordData == null) {
-                                        logger.debug("record parser did not parse "
-                                                + "record correctly and returned "
-                                                + "null; injecting client side "
-                                                + "surrogate diagnostic");
+                                        logger.debug(
+                                                "no record data parser found "
+                                                        + "for schema '{}'; injecting client "
+                                                        + "side surrogate diagnostic",
+                                                schema);
                                         surrogate = new SRUDiagnostic(
-                                                SRUClientDiagnostics.DIAG_RECORD_PARSER_NULL,
-                                                null,
-                                                "Record parser for schema '" +
-                                                        schema +
-                                                        "' did not " +
-                                                        "parse record correctly " +
-                                                        "and errornously " +
-                                                        "returned null.");
+                                                SRUClientDiagnostics.DIAG_NO_RECORD_PARSER,
+                                                schema,
+                                                "No record data parser for schema '" +
+                                                        schema + "' found.");
                                     }
-                                } else {
-                                    /*
-                                     * no record parser found, inject a
-                                     * surrogate diagnostic
-                                     */
-                                    logger.debug(
-                                            "no record data parser found "
-                                                    + "for schema '{}'; injecting client "
-                                                    + "side surrogate diagnostic",
-                                            schema);
-                                    surrogate = new SRUDiagnostic(
-                                            SRUClientDiagnostics.DIAG_NO_RECORD_PARSER,
-                                            schema,
-                                            "No record data parser for schema '" +
-                                                    schema + "' found.");
                                 }
-                            }
 
-                            reader.consumeWhitespace();
-                            reader.readEnd(ns.sruNS(), "recordData", true);
+                                reader.consumeWhitespace();
+                                reader.readEnd(ns.sruNS(), "recordData", true);
+                            }
 
                             String identifier = null;
-                            if (version.isVersion(SRUVersion.VERSION_1_2,
-                                    SRUVersion.VERSION_2_0)) {
+                            if (envelope.hasIdentifier) {
                                 identifier = reader.readContent(ns.sruNS(),
                                         "recordIdentifier", false);
                             }
@@ -1126,18 +1563,34 @@ public class SRUSimpleClient {
                                     identifier, position);
 
                             // notify handler
-                            if (surrogate != null) {
-                                handler.onSurrogateRecord(identifier,
-                                        position, surrogate);
-                            } else {
-                                if (recordData != null) {
-                                    handler.onRecord(identifier,
-                                            position, recordData);
+                            if (pipeline != null) {
+                                pipeline.add(identifier, position, schema,
+                                        task, recordData, surrogate);
+                                if (!deliverRecords(pipeline, false, request,
+                                        handler)) {
+                                    handler.onFinishRecords(-1);
+                                    return;
                                 }
+                            } else {
+                                notifyRecord(identifier, position, recordData,
+                                        surrogate, request, handler);
                             }
 
-                            if (reader.readStart(ns.sruNS(),
+                            if (skipExtraData) {
+                                reader.skipElement(ns.sruNS(),
+                                        "extraRecordData", false);
+                            } else if (reader.readStart(ns.sruNS(),
                                     "extraRecordData", false)) {
+                                /*
+                                 * the handler must receive the record before
+                                 * its extra record data
+                                 */
+                                if ((pipeline != null) &&
+                                        !deliverRecords(pipeline, true,
+                                                request, handler)) {
+                                    handler.onFinishRecords(-1);
+                                    return;
+                                }
                                 reader.consumeWhitespace();
                                 proxy.reset(reader);
                                 try {
@@ -1155,6 +1608,12 @@ public class SRUSimpleClient {
                             reader.readEnd(ns.sruNS(), "record");
                             recordCount++;
                         } // while
+                        if ((pipeline != null) &&
+                                !deliverRecords(pipeline, true, request,
+                                        handler)) {
+                            handler.onFinishRecords(-1);
+                            return;
+                        }
                         reader.readEnd(ns.sruNS(), "records");
                     }
                     if (recordCount == 0) {
@@ -1172,9 +1631,8 @@ public class SRUSimpleClient {
                      */
                     if (reader.readStart(ns.sruNS(), "records", false)) {
                         int bad = 0;
-                        while (reader.readStart(ns.sruNS(), "record", false)) {
+                        while (reader.skipElement(ns.sruNS(), "record", false)) {
                             bad++;
-                            reader.readEnd(ns.sruNS(), "record", true);
                         }
                         reader.readEnd(ns.sruNS(), "records", true);
                         if (bad == 0) {
@@ -1209,16 +1667,14 @@ public class SRUSimpleClient {
                 handler.onFinishRecords(nextRecordPosition);
 
                 // searchRetrieveResponse/echoedSearchRetrieveResponse
-                if (reader.readStart(ns.sruNS(),
-                        "echoedSearchRetrieveRequest", false)) {
-                    reader.readEnd(ns.sruNS(), "echoedSearchRetrieveRequest", true);
-                }
+                reader.skipElement(ns.sruNS(), "echoedSearchRetrieveRequest",
+                        false);
 
                 /*
                  * common error: echoedSearchRetrieveRequest in
                  * default namespace
                  */
-                if (reader.readStart("", "echoedSearchRetrieveRequest", false)) {
+                if (reader.peekStart("", "echoedSearchRetrieveRequest")) {
                     logger.error("Element 'echoedSearchRetrieveRequest' " +
                             "must be in SRU namespace, but endpoint put it " +
                             "into default namespace");
@@ -1228,18 +1684,22 @@ public class SRUSimpleClient {
                                 "be in SRU namespace, but endpoint put it " +
                                 "into default namespace");
                     }
-                    reader.readEnd("", "echoedSearchRetrieveRequest", true);
+                    reader.skipElement("", "echoedSearchRetrieveRequest", true);
                 }
 
                 // searchRetrieveResponse/diagnostics
                 final List<SRUDiagnostic> diagnostics =
                         parseDiagnostics(reader, ns, ns.sruNS(), strictMode);
                 if (diagnostics != null) {
+                    diagnosticsReceived = true;
                     handler.onDiagnostics(diagnostics);
                 }
 
                 // explainResponse/extraResponseData
-                if (reader.readStart(ns.sruNS(), "extraResponseData", false)) {
+                if (skipExtraData) {
+                    reader.skipElement(ns.sruNS(), "extraResponseData", false);
+                } else if (reader.readStart(ns.sruNS(), "extraResponseData",
+                        false)) {
                     reader.consumeWhitespace();
                     proxy.reset(reader);
                     try {
@@ -1256,9 +1716,8 @@ public class SRUSimpleClient {
                     // SRU (2.0) arbitrary stuff
                     // SRU (2.0) resultSetTTL (replaces resultSetIdleTime)
                     // SRU (2.0) resultCountPrecision
-                    if (reader.readStart(ns.sruNS(), "resultCountPrecision", false)) {
-                        reader.readEnd(ns.sruNS(), "resultCountPrecision", true);
-                    }
+                    reader.skipElement(ns.sruNS(), "resultCountPrecision",
+                            false);
                     // SRU (2.0) facetedResults
                     // SRU (2.0) searchResultAnalysis
                 }
@@ -1266,7 +1725,68 @@ public class SRUSimpleClient {
             }
         } catch (XMLStreamException e) {
             throw new SRUClientException(e.getMessage(), e);
+        } finally {
+            /*
+             * cancel records still being parsed, if parsing was stopped or
+             * failed
+             */
+            if (pipeline != null) {
+                pipeline.clear();
+            }
+        }
+    }
+
+
+    /*
+     * Deliver the parsed records of the pipeline to the handler. Returns
+     * false, if the handler requested to stop parsing.
+     */
+    private boolean deliverRecords(SRURecordDataPipeline pipeline,
+            boolean all, SRUSearchRetrieveRequest request,
+            SRUSearchRetrieveHandler handler) throws SRUClientException {
+        SRURecordDataPipeline.Entry entry;
+        while ((entry = pipeline.poll(all)) != null) {
+            if (isStopRequested()) {
+                /* handler does not want any more records */
+                pipeline.clear();
+                return false;
+            }
+            final SRURecordData recordData = entry.getData();
+            SRUDiagnostic surrogate = entry.surrogate;
+            if ((recordData == null) && (surrogate == null)) {
+                surrogate = makeParserNullDiagnostic(entry.schema);
+            }
+            notifyRecord(entry.identifier, entry.position, recordData,
+                    surrogate, request, handler);
         }
+        return true;
+    }
+
+
+    private void notifyRecord(String identifier, int position,
+            SRURecordData recordData, SRUDiagnostic surrogate,
+            SRUSearchRetrieveRequest request, SRUSearchRetrieveHandler handler)
+            throws SRUClientException {
+        if (surrogate != null) {
+            handler.onSurrogateRecord(identifier, position, surrogate);
+        } else {
+            if (recordData != null) {
+                handler.onRecord(identifier, position, recordData);
+            }
+        }
+        if (events != null) {
+            events.onRecordParsed(request, identifier, position);
+        }
+    }
+
+
+    private static SRUDiagnostic makeParserNullDiagnostic(String schema) {
+        logger.debug("record parser did not parse record correctly and " +
+                "returned null; injecting client side surrogate diagnostic");
+        return new SRUDiagnostic(SRUClientDiagnostics.DIAG_RECORD_PARSER_NULL,
+                null,
+                "Record parser for schema '" + schema + "' did not parse " +
+                        "record correctly and errornously returned null.");
     }
 
 
@@ -1375,13 +1895,24 @@ public class SRUSimpleClient {
     private static SRURecordPacking parseRecordPacking(
             SRUXMLStreamReader reader, String envelopNs, boolean strictMode)
                     throws XMLStreamException, SRUClientException {
-        final String s = reader.readContent(envelopNs, "recordPacking", false);
-        if (s != null) {
-            if (RECORD_PACKING_PACKED.equals(s)) {
-                return SRURecordPacking.PACKED;
-            } else if (RECORD_PACKING_UNPACKED.equals(s)) {
-                return SRURecordPacking.UNPACKED;
-            } else if (!strictMode && RECORD_PACKING_PACKED.equalsIgnoreCase(s)) {
+        return toRecordPacking(reader.readContent(envelopNs, "recordPacking",
+                false, RECORD_PACKING_TOKENS), reader, strictMode);
+    }
+
+
+    private static SRURecordPacking toRecordPacking(int token,
+            SRUXMLStreamReader reader, boolean strictMode)
+                    throws SRUClientException {
+        switch (token) {
+        case 0:
+            return SRURecordPacking.PACKED;
+        case 1:
+            return SRURecordPacking.UNPACKED;
+        case SRUXMLStreamReader.TOKEN_MISSING:
+            return null;
+        default:
+            final String s = reader.getLastContent();
+            if (!strictMode && RECORD_PACKING_PACKED.equalsIgnoreCase(s)) {
                 logger.error("invalid value '{}' for '<recordPacking>', should be '{}'",
                              s, RECORD_PACKING_PACKED);
                 return SRURecordPacking.PACKED;
@@ -1396,7 +1927,6 @@ public class SRUSimpleClient {
                         "')");
             }
         }
-        return null;
     }
 
 
@@ -1406,13 +1936,25 @@ public class SRUSimpleClient {
 
         final String name = version.isVersion(SRUVersion.VERSION_2_0)
                           ? "recordXMLEscaping" : "recordPacking";
-        final String s = reader.readContent(ns.sruNS(), name, true);
+        return toRecordXmlEscaping(reader.readContent(ns.sruNS(), name, true,
+                RECORD_ESCAPING_TOKENS), reader, name, strictMode);
+    }
+
 
-        if (RECORD_ESCAPING_XML.equals(s)) {
+    private static SRURecordXmlEscaping toRecordXmlEscaping(int token,
+            SRUXMLStreamReader reader, String name, boolean strictMode)
+                    throws SRUClientException {
+        switch (token) {
+        case 0:
             return SRURecordXmlEscaping.XML;
-        } else if (RECORD_ESCAPING_STRING.equals(s)) {
+        case 1:
             return SRURecordXmlEscaping.STRING;
-        } else if (!strictMode && RECORD_ESCAPING_XML.equalsIgnoreCase(s)) {
+        default:
+            break;
+        }
+
+        final String s = reader.getLastContent();
+        if (!strictMode && RECORD_ESCAPING_XML.equalsIgnoreCase(s)) {
             logger.error("invalid value '{}' for '<{}>', should be '{}'",
                          s, name, RECORD_ESCAPING_XML);
             return SRURecordXmlEscaping.XML;
@@ -1438,43 +1980,19 @@ public class SRUSimpleClient {
     }
 
 
-    private static SRUXMLStreamReader createReader(InputStream in, boolean wrap)
+    private SRUXMLStreamReader createReader(InputStream in)
             throws XMLStreamException {
-        return new SRUXMLStreamReader(in, wrap);
+        return new SRUXMLStreamReader(inputFactory, in);
     }
 
 
-    private static CloseableHttpClient createHttpClient(int connectTimeout,
-            int socketTimeout) {
-        final PoolingHttpClientConnectionManager manager =
-                new PoolingHttpClientConnectionManager();
-        manager.setDefaultMaxPerRoute(8);
-        manager.setMaxTotal(128);
-
-        final SocketConfig socketConfig = SocketConfig.custom()
-                .setSoReuseAddress(true)
-                .setSoLinger(0)
-                .build();
-
-        final RequestConfig requestConfig = RequestConfig.custom()
-                .setAuthenticationEnabled(false)
-                .setRedirectsEnabled(true)
-                .setMaxRedirects(4)
-                .setCircularRedirectsAllowed(false)
-                .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
-                .setConnectTimeout(connectTimeout)
-                .setSocketTimeout(socketTimeout)
-                .setConnectionRequestTimeout(0) /* infinite */
-                .build();
-
-        return HttpClients.custom()
-                .setUserAgent(USER_AGENT)
-                .setConnectionManager(manager)
-                .setDefaultSocketConfig(socketConfig)
-                .setDefaultRequestConfig(requestConfig)
-                .setConnectionReuseStrategy(new NoConnectionReuseStrategy())
-                .build();
-    }
+    private interface ResponseProcessor {
+        public void parse(SRUXMLStreamReader reader) throws SRUClientException;
+
+        public void onRequestStatistics(long bytesTransferred,
+                long bytesDecoded, long millisTotal, long millisNetwork,
+                long millisProcessing);
+    } // interface ResponseProcessor
 
 
     private static SRUNamespaces detectNamespace(final SRUXMLStreamReader reader,
@@ -1525,6 +2043,77 @@ public class SRUSimpleClient {
     }
 
 
+    /*
+     * The record envelope of a searchRetrieve response as expected for the
+     * namespace and version of the response, resolved once per response.
+     * readHead() is a fast path for the elements before <recordData> of a
+     * well-formed record, i.e. <recordSchema>, (SRU 2.0) <recordPacking> and
+     * <recordXMLEscaping> (SRU 2.0) or <recordPacking> (SRU 1.x) in this
+     * order. The parsed values are kept in the (reused) envelope object.
+     */
+    private static final class RecordEnvelope {
+        private final SRUNamespaces ns;
+        private final SRUVersion version;
+        private final boolean strictMode;
+        private final String sruNS;
+        private final String escapingName;
+        private final boolean hasPacking;
+        private final boolean hasIdentifier;
+        private String schema;
+        private SRURecordPacking recordPacking;
+        private SRURecordXmlEscaping recordXmlEscaping;
+
+
+        private RecordEnvelope(SRUNamespaces ns, SRUVersion version,
+                boolean strictMode) {
+            this.ns            = ns;
+            this.version       = version;
+            this.strictMode    = strictMode;
+            this.sruNS         = ns.sruNS();
+            this.hasPacking    = version.isVersion(SRUVersion.VERSION_2_0);
+            this.escapingName  = hasPacking
+                               ? "recordXMLEscaping" : "recordPacking";
+            this.hasIdentifier = version.isVersion(SRUVersion.VERSION_1_2,
+                    SRUVersion.VERSION_2_0);
+        }
+
+
+        /*
+         * Returns false, if the record does not start with <recordSchema>,
+         * e.g. because of the common error of <recordPacking> appearing
+         * first. Only whitespace has been consumed in this case and the
+         * tolerant path needs to be used. A missing or misplaced element
+         * later on is left to the general methods, which report the error.
+         */
+        private boolean readHead(SRUXMLStreamReader reader)
+                throws XMLStreamException, SRUClientException {
+            if (!reader.peekStart(sruNS, "recordSchema")) {
+                return false;
+            }
+            schema = reader.readLeafContent(sruNS, "recordSchema");
+
+            recordPacking = null;
+            if (hasPacking && reader.peekStart(sruNS, "recordPacking")) {
+                recordPacking = toRecordPacking(
+                        reader.readLeafContent(sruNS, "recordPacking",
+                                RECORD_PACKING_TOKENS),
+                        reader, strictMode);
+            }
+
+            if (reader.peekStart(sruNS, escapingName)) {
+                recordXmlEscaping = toRecordXmlEscaping(
+                        reader.readLeafContent(sruNS, escapingName,
+                                RECORD_ESCAPING_TOKENS),
+                        reader, escapingName, strictMode);
+            } else {
+                recordXmlEscaping = parseRecordXmlEscaping(reader, ns,
+                        version, strictMode);
+            }
+            return true;
+        }
+    } // class RecordEnvelope
+
+
     private interface SRUNamespaces {
         public boolean compatibleWithVersion(SRUVersion version);
 
@@ -0,0 +1,47 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+
+
+/**
+ * A record data implementation for records, whose record data was skipped by
+ * the parser, because it was not requested.
+ *
+ * @see SRUProjection#IDENTIFIERS
+ */
+public final class SRUSkippedRecordData implements SRURecordData {
+    private final String recordSchema;
+
+
+    SRUSkippedRecordData(String recordSchema) {
+        this.recordSchema = recordSchema;
+    }
+
+
+    @Override
+    public String getRecordSchema() {
+        return recordSchema;
+    }
+
+
+    @Override
+    public boolean isTransient() {
+        return false;
+    }
+
+} // class SRUSkippedRecordData
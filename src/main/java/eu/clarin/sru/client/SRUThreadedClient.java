@@ -16,11 +16,23 @@
  */
 package eu.clarin.sru.client;
 
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 
@@ -36,6 +48,18 @@ import org.slf4j.LoggerFactory;
  * client object and may shared it between multiple threads.
  * </p>
  * <p>
+ * The client keeps rolling latency and health statistics for every endpoint
+ * it talks to, see {@link #getEndpointStatistics(URI)}. If configured, slow
+ * requests are hedged based on these statistics, see {@link SRUHedgingPolicy},
+ * and requests to endpoints, that are known to be down, fail immediately, see
+ * {@link SRUCircuitBreakerPolicy}.
+ * </p>
+ * <p>
+ * If request coalescing is enabled, identical requests, that are performed
+ * concurrently, share a single HTTP exchange and receive the same response
+ * object, see {@link SRUClientConfig.Builder#setRequestCoalescingEnabled(boolean)}.
+ * </p>
+ * <p>
  * NB: The registered {@link SRURecordDataParser} need to be thread-safe
  * </p>
  */
@@ -46,6 +70,17 @@ public class SRUThreadedClient {
             DocumentBuilderFactory.newInstance();
     private final ThreadLocal<SRUClient> client;
     private final ExecutorService executor;
+    private final SRUAdaptiveTimeoutPolicy timeoutPolicy;
+    private final SRUHedgingPolicy hedgingPolicy;
+    private final ScheduledExecutorService hedgingTimer;
+    private final SRUCircuitBreakerPolicy circuitBreakerPolicy;
+    private final SRUClientEventDispatcher events;
+    private final SRUVersion defaultVersion;
+    private final SRURequestMethod defaultRequestMethod;
+    private final ConcurrentMap<String, Flight> flights;
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final ConcurrentMap<URI, SRUEndpointStatistics> statistics =
+            new ConcurrentHashMap<>();
 
 
     /**
@@ -68,6 +103,37 @@ public class SRUThreadedClient {
             }
         };
 
+        timeoutPolicy = config.getAdaptiveTimeoutPolicy();
+        hedgingPolicy = config.getHedgingPolicy();
+        circuitBreakerPolicy = config.getCircuitBreakerPolicy();
+        defaultVersion = config.getDefaultVersion();
+        defaultRequestMethod = config.getDefaultRequestMethod();
+        if (config.isRequestCoalescingEnabled()) {
+            flights = new ConcurrentHashMap<>();
+        } else {
+            flights = null;
+        }
+        final List<SRUClientEventListener> listeners =
+                config.getEventListeners();
+        if ((listeners != null) && !listeners.isEmpty()) {
+            events = new SRUClientEventDispatcher(listeners);
+        } else {
+            events = null;
+        }
+        if (hedgingPolicy != null) {
+            hedgingTimer = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "sru-client-hedging");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            hedgingTimer = null;
+        }
+
         // launch workers ...
         final int threadCount = config.getThreadCount();
         logger.debug("using {} workers", threadCount);
@@ -136,7 +202,7 @@ public class SRUThreadedClient {
             throw new SRUClientException("client is shutting down");
         }
         executor.submit(new AsyncRequest<SRUExplainRequest, SRUExplainResponse>(
-                request, callback) {
+                request, callback, true) {
             @Override
             protected SRUExplainResponse doRequest(SRUClient client)
                     throws SRUClientException {
@@ -208,7 +274,7 @@ public class SRUThreadedClient {
             throw new SRUClientException("client is shutting down");
         }
         executor.submit(new AsyncRequest<SRUScanRequest, SRUScanResponse>(
-                request, callback) {
+                request, callback, false) {
             @Override
             protected SRUScanResponse doRequest(SRUClient client)
                     throws SRUClientException {
@@ -280,7 +346,7 @@ public class SRUThreadedClient {
             throw new SRUClientException("client is shutting down");
         }
         executor.submit(new AsyncRequest<SRUSearchRetrieveRequest,
-                SRUSearchRetrieveResponse>(request, callback) {
+                SRUSearchRetrieveResponse>(request, callback, true) {
             @Override
             protected SRUSearchRetrieveResponse doRequest(SRUClient client)
                     throws SRUClientException {
@@ -290,6 +356,50 @@ public class SRUThreadedClient {
     }
 
 
+    /**
+     * Get the statistics for an endpoint.
+     *
+     * @param baseURI
+     *            the baseURI of the endpoint
+     * @return the statistics for the endpoint or <code>null</code> if no
+     *         request has been performed for this endpoint, yet
+     * @throws NullPointerException
+     *             if any required argument is <code>null</code>
+     * @see SRUEndpointStatistics
+     */
+    public SRUEndpointStatistics getEndpointStatistics(URI baseURI) {
+        if (baseURI == null) {
+            throw new NullPointerException("baseURI == null");
+        }
+        return statistics.get(baseURI);
+    }
+
+
+    /**
+     * Get the statistics for all endpoints, for which requests have been
+     * performed by this client.
+     *
+     * @return a read-only map of baseURI to endpoint statistics
+     * @see SRUEndpointStatistics
+     */
+    public Map<URI, SRUEndpointStatistics> getEndpointStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+
+    /**
+     * Get the number of requests, that have been answered with the response
+     * of an identical request in progress instead of performing a HTTP
+     * exchange of their own.
+     *
+     * @return the number of coalesced requests
+     * @see SRUClientConfig.Builder#setRequestCoalescingEnabled(boolean)
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedCount.get();
+    }
+
+
     /**
      * Invokes <code>shutdown</code> when this no longer referenced
      */
@@ -305,6 +415,9 @@ public class SRUThreadedClient {
      */
     public void shutdown() {
         executor.shutdown();
+        if (hedgingTimer != null) {
+            hedgingTimer.shutdown();
+        }
     }
 
 
@@ -313,6 +426,52 @@ public class SRUThreadedClient {
      */
     public void shutdownNow() {
         executor.shutdownNow();
+        if (hedgingTimer != null) {
+            hedgingTimer.shutdownNow();
+        }
+    }
+
+
+    private SRUEndpointStatistics getOrCreateStatistics(URI baseURI) {
+        SRUEndpointStatistics stats = statistics.get(baseURI);
+        if (stats == null) {
+            stats = new SRUEndpointStatistics(baseURI,
+                    (circuitBreakerPolicy != null)
+                            ? new SRUCircuitBreaker(circuitBreakerPolicy)
+                            : null);
+            final SRUEndpointStatistics old =
+                    statistics.putIfAbsent(baseURI, stats);
+            if (old != null) {
+                stats = old;
+            }
+        }
+        return stats;
+    }
+
+
+    private String makeFlightKey(SRUAbstractRequest request)
+            throws SRUClientException {
+        final String key;
+        if (request instanceof SRUExplainRequest) {
+            key = SRUExplainCache.makeKey((SRUExplainRequest) request,
+                    defaultVersion, defaultRequestMethod);
+        } else {
+            key = request.makeKey(defaultVersion, defaultRequestMethod);
+        }
+        return request.getOperation() + "\n" + key;
+    }
+
+
+    private void onCircuitStateChanged(URI baseURI,
+            SRUCircuitState previous, SRUCircuitState state) {
+        if (previous == null) {
+            return;
+        }
+        logger.info("circuit breaker for endpoint {} changed from {} to {}",
+                baseURI, previous, state);
+        if (events != null) {
+            events.onCircuitStateChanged(baseURI, previous, state);
+        }
     }
 
 
@@ -341,22 +500,161 @@ public class SRUThreadedClient {
     }
 
 
-    private abstract class Request<V extends SRUAbstractRequest, S extends SRUAbstractResponse<V>>
-            implements Callable<S> {
+    private abstract class AbstractRequest<V extends SRUAbstractRequest,
+                                           S extends SRUAbstractResponse<V>> {
         protected final V request;
-        private long now = System.nanoTime();
+        protected final long now = System.nanoTime();
 
 
-        Request(V request) {
+        AbstractRequest(V request) {
             this.request = request;
         }
 
 
-        @Override
-        public final S call() throws Exception {
+        /*
+         * If coalescing is requested and enabled, the request either becomes
+         * the leader for its key and performs the HTTP exchange, or waits for
+         * the leader and shares its outcome. A follower of a leader, that has
+         * been cancelled (e.g. because it lost a hedging race), tries again.
+         * The queue time of the attempt is measured from the given time stamp.
+         */
+        protected final S perform(SRUAbortHandle handle, boolean coalesce,
+                long enqueued) throws SRUClientException {
+            if (!coalesce || (flights == null)) {
+                return execute(handle, enqueued);
+            }
+            final String key = makeFlightKey(request);
+            for (;;) {
+                final Flight flight = new Flight();
+                final Flight leader = flights.putIfAbsent(key, flight);
+                if (leader == null) {
+                    return lead(key, flight, handle, enqueued);
+                }
+                if (leader.await(handle)) {
+                    coalescedCount.incrementAndGet();
+                    logger.debug("coalesced request to {}",
+                            request.getBaseURI());
+                    return leader.<S>getResponse();
+                }
+            }
+        }
+
+
+        private S lead(String key, Flight flight, SRUAbortHandle handle,
+                long enqueued) throws SRUClientException {
+            S response = null;
+            Throwable error = null;
+            boolean cancelled = false;
+            try {
+                response = execute(handle, enqueued);
+                return response;
+            } catch (SRUClientException e) {
+                error = e;
+                cancelled = (handle != null) && handle.isCancelled();
+                throw e;
+            } catch (RuntimeException e) {
+                error = e;
+                throw e;
+            } catch (Error e) {
+                error = e;
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+                flight.complete(response, error, cancelled);
+            }
+        }
+
+
+        private S execute(SRUAbortHandle handle, long enqueued)
+                throws SRUClientException {
             final SRUClient c = client.get();
-            c.setTimeQueued(System.nanoTime() - now);
-            return doRequest(c);
+            final long ts_start = System.nanoTime();
+            c.setTimeQueued(ts_start - enqueued);
+
+            final URI baseURI = request.getBaseURI();
+            final SRUEndpointStatistics stats = getOrCreateStatistics(baseURI);
+            final SRUCircuitBreaker breaker = stats.getCircuitBreaker();
+            if (breaker != null) {
+                final SRUCircuitState previous = breaker.acquire();
+                if (previous == null) {
+                    stats.onRequestRejected();
+                    throw new SRUCircuitOpenException("circuit breaker for " +
+                            "endpoint " + baseURI + " is open", baseURI);
+                }
+                if (previous == SRUCircuitState.OPEN) {
+                    onCircuitStateChanged(baseURI, previous,
+                            SRUCircuitState.HALF_OPEN);
+                }
+            }
+            if (timeoutPolicy != null) {
+                c.setTimeout(timeoutPolicy.computeTimeout(stats));
+            }
+            if (handle != null) {
+                c.setAbortHandle(handle);
+            }
+            stats.onRequestStart();
+            boolean accounted = false;
+            try {
+                final S response = doRequest(c);
+                accounted = true;
+                if (c.isResponseCached()) {
+                    /*
+                     * the endpoint has not been contacted, so the request
+                     * must not affect its statistics or circuit breaker
+                     */
+                    stats.onRequestCancelled();
+                    if (breaker != null) {
+                        breaker.onCancelled();
+                    }
+                    return response;
+                }
+                stats.onRequestSuccess(TimeUnit.NANOSECONDS.toMillis(
+                        System.nanoTime() - ts_start),
+                        response.getTotalBytesTransferred(),
+                        getRecordCount(response));
+                if (breaker != null) {
+                    onCircuitStateChanged(baseURI, breaker.onSuccess(),
+                            SRUCircuitState.CLOSED);
+                }
+                return response;
+            } catch (SRUClientException e) {
+                accounted = true;
+                if ((handle != null) && handle.isCancelled()) {
+                    /* the result was no longer needed */
+                    stats.onRequestCancelled();
+                    if (breaker != null) {
+                        breaker.onCancelled();
+                    }
+                } else {
+                    stats.onRequestFailure(TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - ts_start), isTimeout(e));
+                    if (breaker != null) {
+                        /*
+                         * the endpoint responded, so only transport errors
+                         * and timeouts count against the circuit breaker
+                         */
+                        if (isEndpointFailure(e)) {
+                            onCircuitStateChanged(baseURI,
+                                    breaker.onFailure(),
+                                    SRUCircuitState.OPEN);
+                        } else {
+                            onCircuitStateChanged(baseURI,
+                                    breaker.onSuccess(),
+                                    SRUCircuitState.CLOSED);
+                        }
+                    }
+                }
+                throw e;
+            } finally {
+                /* unexpected runtime errors count as failures, too */
+                if (!accounted) {
+                    stats.onRequestFailure(TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - ts_start), false);
+                    if (breaker != null) {
+                        breaker.onCancelled();
+                    }
+                }
+            }
         }
 
 
@@ -365,40 +663,277 @@ public class SRUThreadedClient {
     }
 
 
+    private abstract class Request<V extends SRUAbstractRequest,
+                                   S extends SRUAbstractResponse<V>>
+            extends AbstractRequest<V, S> implements Callable<S> {
+
+        Request(V request) {
+            super(request);
+        }
+
+
+        @Override
+        public final S call() throws Exception {
+            return perform(null, true, now);
+        }
+    }
+
+
     private abstract class AsyncRequest<V extends SRUAbstractRequest,
                                         S extends SRUAbstractResponse<V>>
-            implements Runnable {
-        protected final V request;
-        private long now = System.nanoTime();
+            extends AbstractRequest<V, S> implements Runnable {
         private final SRUCallback<V, S> callback;
+        private final boolean hedge;
+        private final List<SRUAbortHandle> attempts = new ArrayList<>(2);
+        private boolean completed = false;
+        private int running = 0;
+        private Future<?> hedgingTask;
 
 
-        public AsyncRequest(V request, SRUCallback<V, S> callback) {
+        public AsyncRequest(V request, SRUCallback<V, S> callback,
+                boolean hedge) {
+            super(request);
             this.callback = callback;
-            this.request = request;
+            this.hedge    = hedge && (hedgingPolicy != null);
         }
 
 
         @Override
         public void run() {
+            if (hedge) {
+                scheduleHedge();
+            }
+            runAttempt(true, now);
+        }
+
+
+        private void scheduleHedge() {
+            final long delay = hedgingPolicy.computeDelay(
+                    getOrCreateStatistics(request.getBaseURI()));
+            if (delay < 0) {
+                return;
+            }
+            try {
+                final Future<?> task = hedgingTimer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        startHedge();
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+                synchronized (this) {
+                    hedgingTask = task;
+                }
+            } catch (RejectedExecutionException e) {
+                /* client is shutting down, just do not hedge */
+            }
+        }
+
+
+        private void startHedge() {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+            }
+            logger.debug("hedging request to {}", request.getBaseURI());
+            /*
+             * the hedge is queued now, so its timings must not include the
+             * hedging delay
+             */
+            final long enqueued = System.nanoTime();
+            try {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        /* a hedge must not wait for the attempt it races */
+                        runAttempt(false, enqueued);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                /* client is shutting down, just do not hedge */
+            }
+        }
+
+
+        private void runAttempt(boolean coalesce, long enqueued) {
+            final SRUAbortHandle handle = new SRUAbortHandle();
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                attempts.add(handle);
+                running++;
+            }
             try {
-                try {
-                    final SRUClient c = client.get();
-                    c.setTimeQueued(System.nanoTime() - now);
-                    final S response = doRequest(c);
-                    callback.onSuccess(response);
-                } catch (SRUClientException e) {
+                final S response = perform(handle, coalesce, enqueued);
+                if (complete(handle, true)) {
+                    try {
+                        callback.onSuccess(response);
+                    } catch (Throwable t) {
+                        callback.onError(request, new SRUClientException(
+                                "unexpected error while processing the request",
+                                t));
+                    }
+                }
+            } catch (SRUClientException e) {
+                if (complete(handle, false)) {
                     callback.onError(request, e);
                 }
             } catch (Throwable t) {
-                callback.onError(request, new SRUClientException(
-                        "unexpected error while processing the request", t));
+                if (complete(handle, false)) {
+                    callback.onError(request, new SRUClientException(
+                            "unexpected error while processing the request",
+                            t));
+                }
             }
         }
 
 
-        protected abstract S doRequest(SRUClient client)
-                throws SRUClientException;
+        /*
+         * Returns true, if the outcome of the attempt is to be passed to the
+         * callback. A failed attempt is only reported, if no other attempt is
+         * still running.
+         */
+        private boolean complete(SRUAbortHandle handle, boolean success) {
+            final List<SRUAbortHandle> losers;
+            synchronized (this) {
+                running--;
+                if (completed || (!success && (running > 0))) {
+                    return false;
+                }
+                completed = true;
+                if (hedgingTask != null) {
+                    hedgingTask.cancel(false);
+                }
+                attempts.remove(handle);
+                losers = new ArrayList<>(attempts);
+                attempts.clear();
+            }
+            for (SRUAbortHandle loser : losers) {
+                loser.cancel();
+            }
+            return true;
+        }
+    }
+
+
+    /*
+     * A request in progress, that identical requests wait for. The outcome
+     * of the leader is shared with all followers.
+     */
+    private static final class Flight {
+        private boolean done = false;
+        private boolean cancelled = false;
+        private Object response;
+        private Throwable error;
+
+
+        synchronized void complete(Object response, Throwable error,
+                boolean cancelled) {
+            this.response  = response;
+            this.error     = error;
+            this.cancelled = cancelled;
+            this.done      = true;
+            notifyAll();
+        }
+
+
+        /*
+         * Returns false, if the leader has been cancelled and the follower
+         * needs to try again.
+         */
+        boolean await(SRUAbortHandle handle) throws SRUClientException {
+            if (handle != null) {
+                handle.attach(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (Flight.this) {
+                            Flight.this.notifyAll();
+                        }
+                    }
+                });
+            }
+            try {
+                synchronized (this) {
+                    while (!done) {
+                        if ((handle != null) && handle.isAborted()) {
+                            throw new SRUClientException(
+                                    "request has been cancelled");
+                        }
+                        wait();
+                    }
+                    return !cancelled;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SRUClientException(
+                        "interrupted while waiting for identical request", e);
+            } finally {
+                if (handle != null) {
+                    handle.detach();
+                }
+            }
+        }
+
+
+        @SuppressWarnings("unchecked")
+        synchronized <S> S getResponse() throws SRUClientException {
+            if (error instanceof SRUClientException) {
+                throw (SRUClientException) error;
+            }
+            if (error != null) {
+                throw new SRUClientException(
+                        "unexpected error while processing the request",
+                        error);
+            }
+            return (S) response;
+        }
+    }
+
+
+    private static int getRecordCount(SRUAbstractResponse<?> response) {
+        if (response instanceof SRUSearchRetrieveResponse) {
+            return ((SRUSearchRetrieveResponse) response).getRecordsCount();
+        } else if (response instanceof SRUExplainResponse) {
+            return ((SRUExplainResponse) response).hasRecord() ? 1 : 0;
+        } else {
+            return 0;
+        }
+    }
+
+
+    private static boolean isEndpointFailure(Throwable t) {
+        while (t != null) {
+            if (t instanceof SRUTransportException) {
+                final SRUTransportException e = (SRUTransportException) t;
+                return e.isRetryable() ||
+                        (e.getStatusCode() == -1) ||
+                        (e.getStatusCode() >= 500);
+            }
+            if (t instanceof SRURequestTimeoutException) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+
+    private static boolean isTimeout(Throwable t) {
+        while (t != null) {
+            if (t instanceof SRURequestTimeoutException) {
+                return true;
+            }
+            /*
+             * both, SocketTimeoutException and ConnectTimeoutException are
+             * InterruptedIOExceptions
+             */
+            if (t instanceof InterruptedIOException) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
     }
 
 } // class SRUThreadedClient
@@ -0,0 +1,70 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.IOException;
+
+
+/**
+ * Interface for transports, which perform the HTTP exchanges of the SRU
+ * client. The default transport is based on Apache HttpClient. A custom
+ * transport, e.g. based on a different HTTP stack or serving canned responses
+ * from memory for benchmarks, can be configured with
+ * {@link SRUClientConfig.Builder#setTransport(SRUTransport)}.
+ * <p>
+ * A transport is shared by all clients created with the same configuration,
+ * e.g. by all worker threads of a {@link SRUThreadedClient}, and therefore
+ * needs to be thread-safe.
+ * </p>
+ * <p>
+ * The transport must not decode the response body: if the endpoint sent a
+ * compressed body, it is decompressed by the client according to the
+ * <code>Content-Encoding</code> header of the response.
+ * </p>
+ *
+ * @see SRUTransportRequest
+ * @see SRUTransportResponse
+ */
+public interface SRUTransport {
+
+    /**
+     * Perform a HTTP request. Depending on
+     * {@link SRUTransportRequest#getMethod()}, this is either a
+     * <code>GET</code> request or a <code>POST</code> request with a
+     * form-encoded body.
+     * <p>
+     * If the request has a body (see {@link SRUTransportRequest#getBody()}),
+     * the transport must send it unmodified, using the content type provided
+     * by {@link SRUTransportRequest#getContentType()}.
+     * </p>
+     * <p>
+     * The transport must support aborting the exchange from another thread,
+     * see {@link SRUTransportRequest#setAbortCallback(Runnable)}. It should
+     * notify the client, once a connection to the endpoint has been
+     * established, see {@link SRUTransportRequest#connectionAcquired()}.
+     * </p>
+     *
+     * @param request
+     *            the request to be performed
+     * @return the response, which will be closed by the client
+     * @throws IOException
+     *             if an I/O error occurred or the exchange was aborted
+     */
+    public SRUTransportResponse execute(SRUTransportRequest request)
+            throws IOException;
+
+} // interface SRUTransport
@@ -0,0 +1,93 @@
+/**
+ * This software is copyright (c) 2012-2022 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+/**
+ * SRU client exception raised when the HTTP exchange with the endpoint failed,
+ * i.e. an I/O error occurred or the endpoint responded with an unexpected HTTP
+ * status code. The exception tells whether the failure is transient and the
+ * request may be retried.
+ *
+ * @see SRURetryPolicy
+ */
+@SuppressWarnings("serial")
+public class SRUTransportException extends SRUClientException {
+    private final int statusCode;
+    private final boolean retryable;
+    private final long retryAfter;
+
+
+    /**
+     * Constructor
+     *
+     * @param message
+     *            an error message
+     * @param statusCode
+     *            the HTTP status code or <code>-1</code>, if no response was
+     *            received
+     * @param retryable
+     *            <code>true</code> if the failure is transient and the request
+     *            may be retried
+     * @param retryAfter
+     *            the delay requested by the endpoint using the
+     *            <code>Retry-After</code> header in milliseconds or
+     *            <code>-1</code>, if not available
+     * @param cause
+     *            the cause of the error
+     */
+    public SRUTransportException(String message, int statusCode,
+            boolean retryable, long retryAfter, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+        this.retryable  = retryable;
+        this.retryAfter = retryAfter;
+    }
+
+
+    /**
+     * Get the HTTP status code of the response.
+     *
+     * @return the HTTP status code or <code>-1</code>, if no response was
+     *         received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+
+    /**
+     * Check, if the failure is transient and the request may be retried.
+     *
+     * @return <code>true</code> if the request may be retried,
+     *         <code>false</code> otherwise
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+
+    /**
+     * Get the delay requested by the endpoint using the
+     * <code>Retry-After</code> header.
+     *
+     * @return the delay in milliseconds or <code>-1</code>, if not available
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+} // class SRUTransportException
@@ -0,0 +1,185 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A HTTP request to be performed by a {@link SRUTransport}.
+ *
+ * @see SRUTransport
+ */
+public final class SRUTransportRequest {
+    private static final String CONTENT_TYPE_FORM =
+            "application/x-www-form-urlencoded; charset=UTF-8";
+    private final SRUAbstractRequest request;
+    private final URI uri;
+    private final SRURequestMethod method;
+    private final byte[] body;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final int timeout;
+    private final SRUAbortHandle abortHandle;
+    private final SRUClientEventListener events;
+
+
+    SRUTransportRequest(SRUAbstractRequest request, URI uri, int timeout,
+            SRUAbortHandle abortHandle, SRUClientEventListener events) {
+        if (request == null) {
+            throw new NullPointerException("request == null");
+        }
+        if (uri == null) {
+            throw new NullPointerException("uri == null");
+        }
+        if (abortHandle == null) {
+            throw new NullPointerException("abortHandle == null");
+        }
+        this.request     = request;
+        this.uri         = uri;
+        this.method      = request.getRequestedMethod();
+        this.body        = request.getRequestedBody();
+        this.timeout     = timeout;
+        this.abortHandle = abortHandle;
+        this.events      = events;
+    }
+
+
+    /**
+     * Get the SRU request, on behalf of which this HTTP request is performed.
+     *
+     * @return the SRU request
+     */
+    public SRUAbstractRequest getRequest() {
+        return request;
+    }
+
+
+    /**
+     * Get the URI to be requested.
+     *
+     * @return the URI
+     */
+    public URI getURI() {
+        return uri;
+    }
+
+
+    /**
+     * Get the HTTP request method.
+     *
+     * @return the request method
+     */
+    public SRURequestMethod getMethod() {
+        return method;
+    }
+
+
+    /**
+     * Get the form-encoded request body, if the request method is
+     * {@link SRURequestMethod#POST}. The body is encoded only once and shared
+     * by all attempts of the request, therefore it must not be modified.
+     *
+     * @return the request body or <code>null</code>, if the request has no
+     *         body
+     * @see #getContentType()
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+
+    /**
+     * Get the content type of the request body.
+     *
+     * @return the content type or <code>null</code>, if the request has no
+     *         body
+     */
+    public String getContentType() {
+        return (body != null) ? CONTENT_TYPE_FORM : null;
+    }
+
+
+    /**
+     * Get the headers to be sent with the request.
+     *
+     * @return a read-only map of header names to values
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+
+    /**
+     * Get the timeout, that overrides the connect and socket timeout of the
+     * transport for this request.
+     *
+     * @return the timeout in milliseconds or <code>-1</code>, if the default
+     *         timeouts of the transport are to be used
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+
+    /**
+     * Set the callback, that aborts the HTTP exchange. The callback may be
+     * invoked from any thread, e.g. when the deadline of the request expired,
+     * and must make any blocked operation of the exchange fail. If the request
+     * has already been aborted, the callback is invoked immediately.
+     *
+     * @param callback
+     *            the callback or <code>null</code> to remove the callback
+     */
+    public void setAbortCallback(Runnable callback) {
+        if (callback != null) {
+            abortHandle.attach(callback);
+        } else {
+            abortHandle.detach();
+        }
+    }
+
+
+    /**
+     * Check, if the request has been aborted.
+     *
+     * @return <code>true</code> if the request has been aborted,
+     *         <code>false</code> otherwise
+     */
+    public boolean isAborted() {
+        return abortHandle.isAborted();
+    }
+
+
+    /**
+     * Notify the client, that a connection to the endpoint has been
+     * established and the request is about to be sent.
+     */
+    public void connectionAcquired() {
+        if (events != null) {
+            events.onConnectionAcquired(request);
+        }
+    }
+
+
+    void addHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+} // class SRUTransportRequest
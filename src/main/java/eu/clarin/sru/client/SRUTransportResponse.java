@@ -0,0 +1,82 @@
+/**
+ * This software is copyright (c) 2011-2021 by
+ *  - Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ * This is free software. You can redistribute it
+ * and/or modify it under the terms described in
+ * the GNU General Public License v3 of which you
+ * should have received a copy. Otherwise you can download
+ * it from
+ *
+ *   http://www.gnu.org/licenses/gpl-3.0.txt
+ *
+ * @copyright Leibniz-Institut fuer Deutsche Sprache (http://www.ids-mannheim.de)
+ *
+ * @license http://www.gnu.org/licenses/gpl-3.0.txt
+ *  GNU General Public License v3
+ */
+package eu.clarin.sru.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+
+/**
+ * The response of a HTTP exchange performed by a {@link SRUTransport}.
+ *
+ * @see SRUTransport
+ */
+public interface SRUTransportResponse extends Closeable {
+
+    /**
+     * Get the HTTP status code of the response.
+     *
+     * @return the HTTP status code
+     */
+    public int getStatusCode();
+
+
+    /**
+     * Get the value of a response header.
+     *
+     * @param name
+     *            the name of the header, matched case-insensitive
+     * @return the value of the first header with the given name or
+     *         <code>null</code>, if the response has no such header
+     */
+    public String getHeader(String name);
+
+
+    /**
+     * Get all response headers. Values of headers that occur multiple times
+     * are joined with a comma.
+     *
+     * @return a map of header names to values
+     */
+    public Map<String, String> getHeaders();
+
+
+    /**
+     * Get the body of the response. The body must be returned as it was
+     * received, i.e. it must not be decoded.
+     *
+     * @return the body or <code>null</code>, if the response has no body
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    public InputStream getBody() throws IOException;
+
+
+    /**
+     * Release all resources of the response. If the body has not been read
+     * completely, the transport may either consume the rest of it or discard
+     * the underlying connection.
+     *
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    @Override
+    public void close() throws IOException;
+
+} // interface SRUTransportResponse
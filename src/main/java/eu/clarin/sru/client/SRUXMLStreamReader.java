@@ -16,7 +16,6 @@
  */
 package eu.clarin.sru.client;
 
-import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -36,52 +35,19 @@ import com.ctc.wstx.api.WstxInputProperties;
 
 
 class SRUXMLStreamReader implements XMLStreamReader {
-    private static final class CountingInputStream extends FilterInputStream {
-        protected long count = 0;
-
-        private CountingInputStream(InputStream stream) {
-            super(stream);
-        }
-
-        @Override
-        public int read() throws IOException {
-            final int value = super.read();
-            if (value != -1) {
-                count++;
-            }
-            return value;
-        }
-
-        @Override
-        public int read(byte[] buffer, int offset, int length)
-                throws IOException {
-            final int result = super.read(buffer, offset, length);
-            if (result >= 0) {
-                count += result;
-            }
-            return result;
-        }
-
-        @Override
-        public int read(byte[] buffer) throws IOException {
-            return this.read(buffer, 0, buffer.length);
-        }
-
-        @Override
-        public long skip(long n) throws IOException {
-            final long result = super.skip(n);
-            if (result > 0) {
-                count += result;
-            }
-            return result;
-        }
-    } // class CountingInputStream
-    private static final XMLInputFactory2 factory;
+    /* element is not present */
+    static final int TOKEN_MISSING = -1;
+    /* content of element does not match any of the tokens */
+    static final int TOKEN_UNKNOWN = -2;
     private final InputStream stream;
     private final XMLStreamReader2 reader;
+    private final StringBuilder text = new StringBuilder(64);
+    private int textStart;
+    private int textEnd;
 
-    SRUXMLStreamReader(InputStream in, boolean wrap) throws XMLStreamException {
-        this.stream = wrap ? new CountingInputStream(in) : in;
+    SRUXMLStreamReader(XMLInputFactory2 factory, InputStream in)
+            throws XMLStreamException {
+        this.stream = in;
         this.reader =
                 (XMLStreamReader2) factory.createXMLStreamReader(stream);
     }
@@ -373,15 +339,11 @@ class SRUXMLStreamReader implements XMLStreamReader {
     }
 
 
-    long getByteCount() {
-        if (stream instanceof CountingInputStream) {
-            return ((CountingInputStream) stream).count;
-        } else {
-            return -1;
-        }
-    }
-
-
+    /*
+     * NB: the element names passed to readStart(), readEnd(), peekStart()
+     * and readContent() must be interned strings, e.g. string constants,
+     * because elements are matched by reference (see isElement()).
+     */
     boolean readStart(String namespaceURI, String localName, boolean required)
             throws XMLStreamException {
         return readStart(namespaceURI, localName, required, false);
@@ -400,8 +362,7 @@ class SRUXMLStreamReader implements XMLStreamReader {
                     continue;
                 }
                 if (reader.isStartElement()) {
-                    if (namespaceURI.equals(reader.getNamespaceURI()) &&
-                            localName.equals(reader.getLocalName())) {
+                    if (isElement(namespaceURI, localName)) {
                         // System.err.print("--> found ");
                         if (!attributes) {
                             // System.err.print("and consumed ");
@@ -461,8 +422,7 @@ class SRUXMLStreamReader implements XMLStreamReader {
                     continue;
                 }
                 if (reader.isStartElement()) {
-                    if (!(namespaceURI.equals(reader.getNamespaceURI()) &&
-                            localName.equals(reader.getLocalName()))) {
+                    if (!isElement(namespaceURI, localName)) {
                         level++;
                     }
                     reader.next();
@@ -474,8 +434,7 @@ class SRUXMLStreamReader implements XMLStreamReader {
                 // System.err.println("   @END-TAG: " + dumpState() + " [" +
                 // level + "]");
                 if (level == 0) {
-                    if (namespaceURI.equals(reader.getNamespaceURI()) &&
-                            localName.equals(reader.getLocalName())) {
+                    if (isElement(namespaceURI, localName)) {
                         reader.next(); // consume tag
                         break;
                     } else {
@@ -498,6 +457,23 @@ class SRUXMLStreamReader implements XMLStreamReader {
     }
 
 
+    /*
+     * Skip an element including all of its content. Unlike readEnd() with
+     * skipContent, the content is skipped by the parser itself, so no events
+     * need to be reported and classified and, with lazy parsing, character
+     * data is not even decoded.
+     */
+    boolean skipElement(String namespaceURI, String localName,
+            boolean required) throws XMLStreamException {
+        if (readStart(namespaceURI, localName, required, true)) {
+            reader.skipElement();
+            reader.next(); // consume end tag
+            return true;
+        }
+        return false;
+    }
+
+
     boolean peekStart(String namespaceURI, String localName)
             throws XMLStreamException {
         if (!reader.isEndElement()) {
@@ -508,8 +484,7 @@ class SRUXMLStreamReader implements XMLStreamReader {
                     continue;
                 }
                 if (reader.isStartElement()) {
-                    if (namespaceURI.equals(reader.getNamespaceURI()) &&
-                            localName.equals(reader.getLocalName())) {
+                    if (isElement(namespaceURI, localName)) {
                         return true;
                     } else {
                         return false;
@@ -558,7 +533,10 @@ class SRUXMLStreamReader implements XMLStreamReader {
     int readContent(String namespaceURI, String localName, boolean required,
             int defaultValue) throws XMLStreamException {
         if (readStart(namespaceURI, localName, required)) {
-            String s = readString(true);
+            if (!bufferText()) {
+                throw new XMLStreamException("expected character content "
+                        + "at position ", reader.getLocation());
+            }
             try {
                 readEnd(namespaceURI, localName);
             } catch (XMLStreamException e) {
@@ -571,15 +549,16 @@ class SRUXMLStreamReader implements XMLStreamReader {
                 throw new XMLStreamException(sb.toString(), e.getLocation());
             }
             try {
-                return Integer.parseInt(s);
+                return parseInt(text, textStart, textEnd);
             } catch (NumberFormatException e) {
                 StringBuilder sb = new StringBuilder();
                 sb.append("element '");
                 if (namespaceURI != null) {
                     sb.append('{').append(namespaceURI).append('}');
                 }
-                sb.append(" was expected to be of type xs:integer; ");
-                sb.append("incompatible value was: ").append(s);
+                sb.append(localName);
+                sb.append("' was expected to be of type xs:integer; ");
+                sb.append("incompatible value was: ").append(getLastContent());
                 throw new XMLStreamException(sb.toString(),
                         reader.getLocation(), e);
             }
@@ -588,19 +567,74 @@ class SRUXMLStreamReader implements XMLStreamReader {
     }
 
 
+    /*
+     * Read the content of an element and match it against a list of tokens
+     * without creating a String. Returns the index of the matching token,
+     * TOKEN_MISSING, if the element is not present, or TOKEN_UNKNOWN, if
+     * the content does not match any token. In the latter case, the content
+     * is available from getLastContent().
+     */
+    int readContent(String namespaceURI, String localName, boolean required,
+            String[] tokens) throws XMLStreamException {
+        if (readStart(namespaceURI, localName, required)) {
+            if (!bufferText()) {
+                throw makeEmptyContentException(namespaceURI, localName);
+            }
+            readEnd(namespaceURI, localName);
+            return matchToken(tokens);
+        }
+        return TOKEN_MISSING;
+    }
+
+
+    /*
+     * Fast path to read an element with character content only, e.g. the
+     * elements of a record envelope. The reader must be positioned on the
+     * start tag of the element, i.e. after a successful peekStart(). If the
+     * content is not followed by the end tag of the element, the general
+     * readEnd() takes over.
+     */
+    String readLeafContent(String namespaceURI, String localName)
+            throws XMLStreamException {
+        reader.next();
+        if (!bufferText()) {
+            throw makeEmptyContentException(namespaceURI, localName);
+        }
+        readLeafEnd(namespaceURI, localName);
+        return getLastContent();
+    }
+
+
+    /*
+     * Like readLeafContent(), but match the content against a list of
+     * tokens, see readContent(String, String, boolean, String[]).
+     */
+    int readLeafContent(String namespaceURI, String localName,
+            String[] tokens) throws XMLStreamException {
+        reader.next();
+        if (!bufferText()) {
+            throw makeEmptyContentException(namespaceURI, localName);
+        }
+        readLeafEnd(namespaceURI, localName);
+        return matchToken(tokens);
+    }
+
+
+    /*
+     * the (trimmed) content read by the last invocation of readString() or
+     * readContent()
+     */
+    String getLastContent() {
+        return text.substring(textStart, textEnd);
+    }
+
+
     String readString(boolean required) throws XMLStreamException {
         // System.err.println("readString @ " + toReadable(reader));
-        StringBuilder sb = new StringBuilder();
-        while (reader.isCharacters()) {
-            String s = reader.getText();
-            if (s != null) {
-                sb.append(s);
-            }
-            reader.next();
-        } // while
+        bufferText();
         String s = null;
-        if (sb.length() > 0) {
-            s = sb.toString().trim();
+        if (text.length() > 0) {
+            s = getLastContent();
         }
         if (required && ((s == null) || s.isEmpty())) {
             throw new XMLStreamException("expected character content "
@@ -713,6 +747,126 @@ class SRUXMLStreamReader implements XMLStreamReader {
     }
 
 
+    private void readLeafEnd(String namespaceURI, String localName)
+            throws XMLStreamException {
+        if (reader.isEndElement() && isElement(namespaceURI, localName)) {
+            reader.next(); // consume tag
+        } else {
+            readEnd(namespaceURI, localName);
+        }
+    }
+
+
+    private int matchToken(String[] tokens) {
+        final int length = textEnd - textStart;
+        for (int i = 0; i < tokens.length; i++) {
+            final String token = tokens[i];
+            if (token.length() != length) {
+                continue;
+            }
+            int j = 0;
+            while ((j < length) &&
+                    (token.charAt(j) == text.charAt(textStart + j))) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
+        }
+        return TOKEN_UNKNOWN;
+    }
+
+
+    private XMLStreamException makeEmptyContentException(String namespaceURI,
+            String localName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("element '");
+        if (namespaceURI != null) {
+            sb.append('{').append(namespaceURI).append('}');
+        }
+        sb.append(localName).append("' may not be empty");
+        return new XMLStreamException(sb.toString(), reader.getLocation());
+    }
+
+
+    /*
+     * Collect the character content at the current position into the
+     * reusable text buffer and determine the bounds of the content without
+     * leading and trailing whitespace (like String.trim()). Returns false, if
+     * there is no such content.
+     */
+    private boolean bufferText() throws XMLStreamException {
+        text.setLength(0);
+        while (reader.isCharacters()) {
+            text.append(reader.getTextCharacters(), reader.getTextStart(),
+                    reader.getTextLength());
+            reader.next();
+        } // while
+        int start = 0;
+        int end = text.length();
+        while ((start < end) && (text.charAt(start) <= ' ')) {
+            start++;
+        }
+        while ((end > start) && (text.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+        textStart = start;
+        textEnd   = end;
+        return start < end;
+    }
+
+
+    /*
+     * Like Integer.parseInt(), but parses a range of a character sequence,
+     * so no String needs to be created.
+     */
+    private static int parseInt(CharSequence s, int start, int end)
+            throws NumberFormatException {
+        if (start >= end) {
+            throw new NumberFormatException("empty value");
+        }
+        int i = start;
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        final char first = s.charAt(i);
+        if ((first == '-') || (first == '+')) {
+            if (first == '-') {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            }
+            if (++i == end) {
+                throw new NumberFormatException("lone sign");
+            }
+        }
+        final int multmin = limit / 10;
+        int result = 0;
+        while (i < end) {
+            // accumulate negatively to cover Integer.MIN_VALUE
+            final int digit = Character.digit(s.charAt(i++), 10);
+            if ((digit < 0) || (result < multmin)) {
+                throw new NumberFormatException("invalid value");
+            }
+            result *= 10;
+            if (result < (limit + digit)) {
+                throw new NumberFormatException("value out of range");
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+
+    /*
+     * The parser interns namespace URIs and local names, so they can be
+     * compared by reference with the (interned) names of the SRU envelope.
+     * Local names are compared first, because they differ more often.
+     */
+    private boolean isElement(String namespaceURI, String localName) {
+        return (reader.getLocalName() == localName) &&
+                (reader.getNamespaceURI() == namespaceURI);
+    }
+
+
     private static void copyEvent(XMLStreamReader from, XMLStreamWriter to)
             throws XMLStreamException {
         switch (from.getEventType()) {
@@ -833,8 +987,9 @@ class SRUXMLStreamReader implements XMLStreamReader {
     }
 
 
-    static {
-        factory = (XMLInputFactory2) XMLInputFactory.newInstance();
+    static XMLInputFactory2 createFactory(SRUParserSettings settings) {
+        final XMLInputFactory2 factory =
+                (XMLInputFactory2) XMLInputFactory.newInstance();
         // prevent XML eXternal Entity injection (XXE)
         factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
         factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
@@ -842,13 +997,20 @@ class SRUXMLStreamReader implements XMLStreamReader {
         
         // Stax settings
         factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING,
+                Boolean.valueOf(settings.isCoalescingEnabled()));
 
-        // Stax2 settings
+        // Stax2 settings (interning is required, see isElement())
+        factory.setProperty(XMLInputFactory2.P_INTERN_NAMES, Boolean.TRUE);
         factory.setProperty(XMLInputFactory2.P_INTERN_NS_URIS, Boolean.TRUE);
-        factory.setProperty(XMLInputFactory2.P_LAZY_PARSING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory2.P_LAZY_PARSING,
+                Boolean.valueOf(settings.isLazyParsingEnabled()));
 
         // Woodstox settings
         factory.setProperty(WstxInputProperties.P_NORMALIZE_LFS, Boolean.TRUE);
+        factory.setProperty(WstxInputProperties.P_INPUT_BUFFER_LENGTH,
+                Integer.valueOf(settings.getInputBufferLength()));
+        return factory;
     }
 
 } // SRUXMLStreamReader